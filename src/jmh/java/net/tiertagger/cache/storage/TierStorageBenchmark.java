@@ -0,0 +1,130 @@
+package net.tiertagger.cache.storage;
+
+import net.tiertagger.models.PlayerTierData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TierStorageBenchmark {
+    
+    private static final int PLAYERS = 10_000;
+    private static final int BATCH_SIZE = 100;
+    
+    @Param({"H2", "MEMORY", "MAPPED_FILE"})
+    public String backend;
+    
+    private Path directory;
+    private ScheduledExecutorService maintenanceExecutor;
+    private TierStorage storage;
+    private List<String> uuids;
+    private LocalDateTime now;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, StorageException {
+        directory = Files.createTempDirectory("tier-storage-benchmark");
+        maintenanceExecutor = Executors.newSingleThreadScheduledExecutor();
+        Logger logger = Logger.getLogger(TierStorageBenchmark.class.getName());
+        
+        storage = switch (backend) {
+            case "H2" -> new H2TierStorage(directory.resolve("tiers.db").toFile(), 4, 5_000, 60_000, logger, maintenanceExecutor);
+            case "MEMORY" -> new MemoryTierStorage();
+            case "MAPPED_FILE" -> new MappedFileTierStorage(directory.resolve("tiers.tiers").toFile(), logger);
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        };
+        storage.open();
+        
+        now = LocalDateTime.now();
+        uuids = new ArrayList<>(PLAYERS);
+        List<CachedTier> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < PLAYERS; i++) {
+            String uuid = String.format("00000000-0000-0000-0000-%012d", i);
+            uuids.add(uuid);
+            batch.add(tier(uuid, now));
+            if (batch.size() == BATCH_SIZE) {
+                storage.putAll(batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        maintenanceExecutor.shutdownNow();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    private static CachedTier tier(String uuid, LocalDateTime now) {
+        PlayerTierData data = new PlayerTierData(uuid, "player");
+        data.setRegion("EU");
+        Map<String, PlayerTierData.GamemodeTier> gamemodes = new HashMap<>();
+        gamemodes.put("vanilla", new PlayerTierData.GamemodeTier(3, 0, 2, 1, 1717171717L, false));
+        gamemodes.put("sword", new PlayerTierData.GamemodeTier(5, 1, 5, 1, 1700000000L, false));
+        data.setGamemodes(gamemodes);
+        return new CachedTier(uuid, "player", data, now, now.plusHours(1));
+    }
+    
+    private String randomUuid() {
+        return uuids.get(ThreadLocalRandom.current().nextInt(PLAYERS));
+    }
+    
+    @Benchmark
+    public CachedTier get() throws StorageException {
+        return storage.get(randomUuid(), now).orElseThrow();
+    }
+    
+    @Benchmark
+    public Map<String, CachedTier> getAll() throws StorageException {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(randomUuid());
+        }
+        return storage.getAll(batch, now);
+    }
+    
+    // Rewrites existing players, the same shape of traffic the write buffer produces on refreshes
+    @Benchmark
+    public void putAll() throws StorageException {
+        List<CachedTier> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(tier(randomUuid(), now));
+        }
+        storage.putAll(batch);
+    }
+    
+    @Benchmark
+    public int loadRecent() throws StorageException {
+        return storage.loadRecent(1_000, now, tier -> {
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package net.tiertagger.models;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlayerTierDataCodecBenchmark {
+    
+    private PlayerTierData data;
+    private byte[] binary;
+    private String json;
+    
+    @Setup
+    public void setUp() {
+        data = new PlayerTierData("069a79f444e94726a5befca90e38aaf5", "Notch");
+        data.setRegion("EU");
+        data.setPoints(312);
+        data.setOverall(1487);
+        data.setCachedAt(LocalDateTime.of(2026, 10, 18, 12, 0));
+        data.setEtag("\"abc123\"");
+        
+        Map<String, PlayerTierData.GamemodeTier> gamemodes = new HashMap<>();
+        gamemodes.put("vanilla", new PlayerTierData.GamemodeTier(3, 0, 2, 1, 1717171717L, false));
+        gamemodes.put("sword", new PlayerTierData.GamemodeTier(5, 1, 5, 1, 1700000000L, false));
+        gamemodes.put("crystal", new PlayerTierData.GamemodeTier(8, 0, 4, 0, 1690000000L, true));
+        gamemodes.put("bedwars", new PlayerTierData.GamemodeTier(10, 1, 10, 1, 1680000000L, false));
+        data.setGamemodes(gamemodes);
+        
+        binary = PlayerTierDataCodec.encode(data);
+        json = data.toJson();
+        // Row size is fixed per payload, so it is reported once rather than measured
+        System.out.println("Row size: binary " + binary.length + " bytes, JSON " + json.getBytes(StandardCharsets.UTF_8).length + " bytes");
+    }
+    
+    @Benchmark
+    public byte[] encodeBinary() {
+        return PlayerTierDataCodec.encode(data);
+    }
+    
+    @Benchmark
+    public String encodeJson() {
+        return data.toJson();
+    }
+    
+    @Benchmark
+    public PlayerTierData decodeBinary() {
+        return PlayerTierDataCodec.decode(binary);
+    }
+    
+    @Benchmark
+    public PlayerTierData decodeJson() {
+        return PlayerTierData.fromJson(json);
+    }
+}
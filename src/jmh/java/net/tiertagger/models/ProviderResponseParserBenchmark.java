@@ -0,0 +1,104 @@
+package net.tiertagger.models;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProviderResponseParserBenchmark {
+    
+    private byte[] mcTiersBody;
+    private byte[] southTiersBody;
+    
+    @Setup
+    public void setUp() throws IOException {
+        mcTiersBody = readPayload("mctiers.json");
+        southTiersBody = readPayload("southtiers.json");
+    }
+    
+    private static byte[] readPayload(String name) throws IOException {
+        try (InputStream input = ProviderResponseParserBenchmark.class.getResourceAsStream("/payloads/" + name)) {
+            if (input == null) {
+                throw new IOException("Missing recorded payload " + name);
+            }
+            return input.readAllBytes();
+        }
+    }
+    
+    @Benchmark
+    public PlayerTierData mcTiersStreaming() throws IOException {
+        return PlayerTierData.fromMCTiersJson(mcTiersBody);
+    }
+    
+    @Benchmark
+    public PlayerTierData mcTiersTree() {
+        return fromMCTiersTree(mcTiersBody);
+    }
+    
+    @Benchmark
+    public PlayerTierData southTiersStreaming() throws IOException {
+        return PlayerTierData.fromSouthTiersJson(southTiersBody);
+    }
+    
+    @Benchmark
+    public PlayerTierData southTiersTree() {
+        return fromSouthTiersTree(southTiersBody);
+    }
+    
+    // The tree parsers below are the previous implementation, kept here as the baseline
+    private static PlayerTierData fromMCTiersTree(byte[] body) {
+        JsonObject json = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+        
+        PlayerTierData data = new PlayerTierData(json.get("uuid").getAsString(), json.get("name").getAsString());
+        data.setRegion(json.has("region") ? json.get("region").getAsString() : "");
+        data.setPoints(json.has("points") ? json.get("points").getAsInt() : 0);
+        data.setOverall(json.has("overall") ? json.get("overall").getAsInt() : 0);
+        
+        if (json.has("rankings")) {
+            JsonObject rankings = json.getAsJsonObject("rankings");
+            for (String gamemode : rankings.keySet()) {
+                JsonObject gamemodeData = rankings.getAsJsonObject(gamemode);
+                PlayerTierData.GamemodeTier tier = new PlayerTierData.GamemodeTier(
+                    gamemodeData.get("tier").getAsInt(),
+                    gamemodeData.get("pos").getAsInt(),
+                    gamemodeData.get("peak_tier").getAsInt(),
+                    gamemodeData.get("peak_pos").getAsInt(),
+                    gamemodeData.get("attained").getAsLong(),
+                    gamemodeData.get("retired").getAsBoolean()
+                );
+                data.getGamemodes().put(gamemode, tier);
+            }
+        }
+        
+        return data;
+    }
+    
+    private static PlayerTierData fromSouthTiersTree(byte[] body) {
+        JsonObject json = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+        
+        PlayerTierData data = new PlayerTierData();
+        
+        if (json.get("success").getAsBoolean()) {
+            JsonObject dataObj = json.getAsJsonObject("data");
+            data.setUsername(dataObj.get("jogador").getAsString());
+            int tierValue = PlayerTierData.parseSouthTierRanking(dataObj.get("ranking").getAsString());
+            PlayerTierData.GamemodeTier tier = new PlayerTierData.GamemodeTier(tierValue, 0, tierValue, 0, System.currentTimeMillis() / 1000, false);
+            data.getGamemodes().put("vanilla", tier);
+        }
+        
+        return data;
+    }
+}
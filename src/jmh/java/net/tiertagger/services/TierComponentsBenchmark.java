@@ -0,0 +1,48 @@
+package net.tiertagger.services;
+
+import net.kyori.adventure.text.Component;
+import net.tiertagger.config.ConfigurationManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TierComponentsBenchmark {
+    
+    // HT1 has a configured gradient, LT3 falls back to a named colour
+    @Param({"HT1", "LT3"})
+    public String tier;
+    
+    private Map<String, ConfigurationManager.TierColor> tierColors;
+    private TierComponents components;
+    
+    @Setup
+    public void setUp() {
+        tierColors = Map.of(
+            "ht1", new ConfigurationManager.TierColor("#FF5555", "#FFAA00"),
+            "lt1", new ConfigurationManager.TierColor("#FFAA00", "#FFFF55")
+        );
+        components = TierComponents.build(tierColors);
+    }
+    
+    @Benchmark
+    public Component precompiled() {
+        return components.get(tier).displayName("Notch");
+    }
+    
+    // Renders the prefix on every call, the way display updates worked before the table existed
+    @Benchmark
+    public Component perCall() {
+        return TierComponents.render(tier, tierColors).displayName("Notch");
+    }
+}
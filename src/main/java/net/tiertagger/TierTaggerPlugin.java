@@ -43,6 +43,9 @@ public final class TierTaggerPlugin extends JavaPlugin {
         if (databaseManager != null) {
             databaseManager.shutdown();
         }
+        if (tierDisplayManager != null) {
+            tierDisplayManager.shutdown();
+        }
 
         apiServiceManager.shutdown();
         getLogger().info("TierTagger has been disabled");
@@ -86,6 +89,7 @@ public final class TierTaggerPlugin extends JavaPlugin {
         
         configurationManager.reloadConfig();
         languageManager.reloadLanguage();
+        tierDisplayManager.reloadTierComponents();
         
         ConfigurationManager.ApiProvider newApiProvider = configurationManager.getApiProvider();
         if (previousApiProvider != null && !previousApiProvider.equals(newApiProvider)) {
@@ -94,6 +98,7 @@ public final class TierTaggerPlugin extends JavaPlugin {
             tierDisplayManager.refetchAllTiers();
         } else {
             getLogger().info("API provider unchanged (" + newApiProvider + ") - keeping existing tiers");
+            tierDisplayManager.updateAll();
         }
 
         previousApiProvider = newApiProvider;
@@ -0,0 +1,220 @@
+package net.tiertagger.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionPool {
+    
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+    private static final int MINIMUM_IDLE = 1;
+    
+    private final String url;
+    private final int maximumSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idleConnections;
+    private final AtomicInteger openConnections;
+    private final AtomicLong acquisitions;
+    private final AtomicLong totalAcquireNanos;
+    private final AtomicLong maxAcquireNanos;
+    private final AtomicLong acquireTimeouts;
+    private final AtomicLong validationFailures;
+    private final AtomicLong idleEvictions;
+    private volatile boolean closed;
+    
+    public ConnectionPool(String url, int maximumSize, long acquireTimeoutMillis, long idleTimeoutMillis) {
+        this.url = url;
+        this.maximumSize = Math.max(1, maximumSize);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.permits = new Semaphore(this.maximumSize, true);
+        this.idleConnections = new ConcurrentLinkedDeque<>();
+        this.openConnections = new AtomicInteger();
+        this.acquisitions = new AtomicLong();
+        this.totalAcquireNanos = new AtomicLong();
+        this.maxAcquireNanos = new AtomicLong();
+        this.acquireTimeouts = new AtomicLong();
+        this.validationFailures = new AtomicLong();
+        this.idleEvictions = new AtomicLong();
+    }
+    
+    public void startIdleEviction(ScheduledExecutorService scheduler) {
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        scheduler.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+    
+    public PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + acquireTimeoutMillis + "ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        
+        try {
+            Connection connection = takeValidConnection();
+            recordAcquisition(System.nanoTime() - start);
+            return new PooledConnection(this, connection);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    void release(Connection connection) {
+        try {
+            if (closed || connection.isClosed()) {
+                discard(connection);
+                return;
+            }
+            
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            
+            idleConnections.offerFirst(new IdleConnection(connection, System.currentTimeMillis()));
+        } catch (SQLException e) {
+            discard(connection);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private Connection takeValidConnection() throws SQLException {
+        IdleConnection candidate;
+        while ((candidate = idleConnections.pollFirst()) != null) {
+            if (isValid(candidate.connection)) {
+                return candidate.connection;
+            }
+            
+            validationFailures.incrementAndGet();
+            discard(candidate.connection);
+        }
+        
+        Connection connection = DriverManager.getConnection(url);
+        openConnections.incrementAndGet();
+        return connection;
+    }
+    
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+    
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        Iterator<IdleConnection> iterator = idleConnections.descendingIterator();
+        
+        while (iterator.hasNext() && idleConnections.size() > MINIMUM_IDLE) {
+            IdleConnection candidate = iterator.next();
+            if (now - candidate.idleSince < idleTimeoutMillis) {
+                break;
+            }
+            
+            if (idleConnections.removeLastOccurrence(candidate)) {
+                idleEvictions.incrementAndGet();
+                discard(candidate.connection);
+            }
+        }
+    }
+    
+    private void discard(Connection connection) {
+        openConnections.decrementAndGet();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+    
+    private void recordAcquisition(long nanos) {
+        acquisitions.incrementAndGet();
+        totalAcquireNanos.addAndGet(nanos);
+        maxAcquireNanos.accumulateAndGet(nanos, Math::max);
+    }
+    
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+    
+    public int getActiveConnections() {
+        return maximumSize - permits.availablePermits();
+    }
+    
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+    
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+    
+    public int getPendingRequests() {
+        return permits.getQueueLength();
+    }
+    
+    public long getAcquisitions() {
+        return acquisitions.get();
+    }
+    
+    public double getAverageAcquireMillis() {
+        long count = acquisitions.get();
+        return count == 0 ? 0.0 : totalAcquireNanos.get() / (double) count / 1_000_000.0;
+    }
+    
+    public double getMaxAcquireMillis() {
+        return maxAcquireNanos.get() / 1_000_000.0;
+    }
+    
+    public long getAcquireTimeouts() {
+        return acquireTimeouts.get();
+    }
+    
+    public long getValidationFailures() {
+        return validationFailures.get();
+    }
+    
+    public long getIdleEvictions() {
+        return idleEvictions.get();
+    }
+    
+    public void close() {
+        closed = true;
+        
+        IdleConnection idleConnection;
+        while ((idleConnection = idleConnections.pollFirst()) != null) {
+            discard(idleConnection.connection);
+        }
+    }
+    
+    private static class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+        
+        private IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+}
@@ -1,166 +1,424 @@
 package net.tiertagger.cache;
 
 import net.tiertagger.TierTaggerPlugin;
+import net.tiertagger.cache.storage.CachedIdentity;
+import net.tiertagger.cache.storage.CachedTier;
+import net.tiertagger.cache.storage.H2TierStorage;
+import net.tiertagger.cache.storage.MappedFileTierStorage;
+import net.tiertagger.cache.storage.MemoryTierStorage;
+import net.tiertagger.cache.storage.StorageException;
+import net.tiertagger.cache.storage.TierStorage;
+import net.tiertagger.config.ConfigurationManager;
 import net.tiertagger.models.PlayerTierData;
 
 import java.io.File;
-import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DatabaseManager {
     
     private final TierTaggerPlugin plugin;
     private final ExecutorService executorService;
-    private Connection connection;
+    private final ScheduledExecutorService maintenanceExecutor;
+    private final MemoryCache<String, PlayerTierData> memoryCache;
+    private final MemoryCache<String, String> usernameCache;
+    private final MemoryCache<String, String> uuidCache;
+    private final WriteBehindBuffer<String, CachedTier> writeBuffer;
+    private final AtomicLong cleanupPasses;
+    private final AtomicLong reclaimedRows;
+    private final AtomicLong cleanupNanos;
+    private TierStorage storage;
+    private ConfigurationManager.StorageBackend storageBackend;
     
     public DatabaseManager(TierTaggerPlugin plugin) {
         this.plugin = plugin;
         this.executorService = Executors.newFixedThreadPool(
             plugin.getConfigurationManager().getDatabasePoolSize()
         );
+        this.maintenanceExecutor = Executors.newSingleThreadScheduledExecutor();
+        this.memoryCache = new MemoryCache<>(plugin.getConfigurationManager().getMemoryCacheSize());
+        this.usernameCache = new MemoryCache<>(plugin.getConfigurationManager().getMemoryCacheSize());
+        this.uuidCache = new MemoryCache<>(plugin.getConfigurationManager().getMemoryCacheSize());
+        this.writeBuffer = new WriteBehindBuffer<>(
+            plugin.getConfigurationManager().getDatabaseWriteBatchSize(),
+            executorService,
+            this::writeBatch
+        );
+        this.cleanupPasses = new AtomicLong();
+        this.reclaimedRows = new AtomicLong();
+        this.cleanupNanos = new AtomicLong();
     }
     
     public void initialize() {
+        storageBackend = plugin.getConfigurationManager().getStorageBackend();
+        storage = createStorage(storageBackend);
+        
         try {
-            Class.forName("org.h2.Driver");
-            setupDatabase();
-            createTables();
-        } catch (ClassNotFoundException e) {
-            plugin.getLogger().severe("Database driver not found: " + e.getMessage());
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Failed to initialize database: " + e.getMessage());
+            storage.open();
+        } catch (StorageException e) {
+            plugin.getLogger().severe(e.getMessage() + " - falling back to memory storage");
+            storage = new MemoryTierStorage();
+            storageBackend = ConfigurationManager.StorageBackend.MEMORY;
         }
+        
+        executorService.execute(() -> {
+            try {
+                storage.migrate();
+            } catch (StorageException e) {
+                plugin.getLogger().warning(e.getMessage());
+            }
+        });
+        
+        warmUp();
+        
+        writeBuffer.start(maintenanceExecutor, TimeUnit.SECONDS.toMillis(plugin.getConfigurationManager().getDatabaseWriteFlushInterval()));
+        scheduleCleanup();
     }
     
-    private void setupDatabase() throws SQLException {
-        String databasePath = plugin.getConfigurationManager().getDatabaseFile();
-        File databaseFile = new File(databasePath);
-        
-        if (!databaseFile.getParentFile().exists()) {
-            databaseFile.getParentFile().mkdirs();
+    private void warmUp() {
+        int warmupSize = Math.min(plugin.getConfigurationManager().getWarmupSize(), memoryCache.getMaximumSize());
+        if (warmupSize <= 0) {
+            return;
         }
         
-        String url = "jdbc:h2:" + databaseFile.getAbsolutePath().replace(".db", "") + ";AUTO_SERVER=TRUE";
-        connection = DriverManager.getConnection(url);
+        executorService.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                int loaded = storage.loadRecent(warmupSize, getExpiryCutoff(), this::remember);
+                plugin.getLogger().info("Warmed up tier cache with " + loaded + " players in " +
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+            } catch (StorageException e) {
+                plugin.getLogger().warning(e.getMessage());
+            } catch (RuntimeException e) {
+                // An unreadable entry would otherwise end the task without a trace
+                plugin.getLogger().warning("Failed to warm up tier cache: " + e);
+            }
+        });
+    }
+    
+    private TierStorage createStorage(ConfigurationManager.StorageBackend backend) {
+        return switch (backend) {
+            case H2 -> new H2TierStorage(
+                new File(plugin.getConfigurationManager().getDatabaseFile()),
+                plugin.getConfigurationManager().getDatabasePoolSize(),
+                TimeUnit.SECONDS.toMillis(plugin.getConfigurationManager().getDatabaseConnectionTimeout()),
+                TimeUnit.MINUTES.toMillis(plugin.getConfigurationManager().getDatabaseIdleTimeout()),
+                plugin.getLogger(),
+                maintenanceExecutor
+            );
+            case MEMORY -> new MemoryTierStorage();
+            case MAPPED_FILE -> new MappedFileTierStorage(new File(
+                plugin.getConfigurationManager().getDatabaseFile().replace(".db", "") + ".tiers"
+            ), plugin.getLogger());
+        };
     }
     
-    private void createTables() throws SQLException {
-        String createTableSQL = """
-            CREATE TABLE IF NOT EXISTS player_tiers (
-                uuid VARCHAR(36) PRIMARY KEY,
-                username VARCHAR(16) NOT NULL,
-                tier_data TEXT NOT NULL,
-                cached_at TIMESTAMP NOT NULL,
-                expires_at TIMESTAMP NOT NULL
-            )
-        """;
+    private void scheduleCleanup() {
+        long interval = Math.max(1, plugin.getConfigurationManager().getCleanupInterval());
+        maintenanceExecutor.scheduleWithFixedDelay(this::cleanExpiredCache, interval, interval, TimeUnit.MINUTES);
+    }
+    
+    public CompletableFuture<Optional<PlayerTierData>> getCachedTierData(String uuid) {
+        PlayerTierData memoryData = memoryCache.get(uuid);
+        if (memoryData != null) {
+            return CompletableFuture.completedFuture(Optional.of(memoryData));
+        }
         
-        try (PreparedStatement statement = connection.prepareStatement(createTableSQL)) {
-            statement.executeUpdate();
+        CachedTier pendingWrite = writeBuffer.getPending(uuid);
+        if (pendingWrite != null && getStaleDeadline(pendingWrite.getExpiresAt()).isAfter(LocalDateTime.now())) {
+            return CompletableFuture.completedFuture(Optional.of(pendingWrite.getTierData()));
         }
+        
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return storage.get(uuid, getExpiryCutoff()).map(this::remember);
+            } catch (StorageException e) {
+                plugin.getLogger().warning(e.getMessage());
+                return Optional.empty();
+            }
+        }, executorService);
     }
     
-    public CompletableFuture<Optional<PlayerTierData>> getCachedTierData(String uuid) {
+    public CompletableFuture<Map<String, PlayerTierData>> getCachedTierData(Collection<String> uuids) {
+        Map<String, PlayerTierData> result = new HashMap<>();
+        List<String> missing = uuids.stream()
+            .filter(uuid -> {
+                PlayerTierData memoryData = memoryCache.get(uuid);
+                if (memoryData != null) {
+                    result.put(uuid, memoryData);
+                }
+                return memoryData == null;
+            })
+            .toList();
+        
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String selectSQL = "SELECT * FROM player_tiers WHERE uuid = ? AND expires_at > ?";
-                try (PreparedStatement statement = connection.prepareStatement(selectSQL)) {
-                    statement.setString(1, uuid);
-                    statement.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
-                    
-                    try (ResultSet resultSet = statement.executeQuery()) {
-                        if (resultSet.next()) {
-                            String username = resultSet.getString("username");
-                            String tierDataJson = resultSet.getString("tier_data");
-                            Timestamp cachedAt = resultSet.getTimestamp("cached_at");
-                            
-                            PlayerTierData tierData = PlayerTierData.fromJson(tierDataJson);
-                            tierData.setUsername(username);
-                            tierData.setUuid(uuid);
-                            tierData.setCachedAt(cachedAt.toLocalDateTime());
-                            
-                            return Optional.of(tierData);
-                        }
-                    }
+                for (CachedTier tier : storage.getAll(missing, getExpiryCutoff()).values()) {
+                    result.put(tier.getUuid(), remember(tier));
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to get cached tier data: " + e.getMessage());
+            } catch (StorageException e) {
+                plugin.getLogger().warning(e.getMessage());
             }
-            return Optional.empty();
+            return result;
         }, executorService);
     }
     
+    private PlayerTierData remember(CachedTier tier) {
+        PlayerTierData tierData = tier.getTierData();
+        tierData.setUsername(tier.getUsername());
+        tierData.setUuid(tier.getUuid());
+        tierData.setCachedAt(tier.getCachedAt());
+        tierData.setExpiresAt(tier.getExpiresAt());
+        
+        memoryCache.put(tier.getUuid(), tierData, toEpochMillis(getStaleDeadline(tier.getExpiresAt())));
+        return tierData;
+    }
+    
     public void cacheTierData(String uuid, String username, PlayerTierData tierData) {
-        CompletableFuture.runAsync(() -> {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(getCacheDuration(tierData));
+        
+        tierData.setCachedAt(now);
+        tierData.setExpiresAt(expiresAt);
+        memoryCache.put(uuid, tierData, toEpochMillis(getStaleDeadline(expiresAt)));
+        writeBuffer.add(uuid, new CachedTier(uuid, username, tierData, now, expiresAt));
+    }
+    
+    public void extendTierData(String uuid, String username, PlayerTierData tierData) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(getCacheDuration(tierData));
+        
+        tierData.setCachedAt(now);
+        tierData.setExpiresAt(expiresAt);
+        memoryCache.put(uuid, tierData, toEpochMillis(getStaleDeadline(expiresAt)));
+        
+        if (writeBuffer.getPending(uuid) != null) {
+            writeBuffer.add(uuid, new CachedTier(uuid, username, tierData, now, expiresAt));
+            return;
+        }
+        
+        executorService.execute(() -> {
             try {
-                String insertSQL = """
-                            MERGE INTO player_tiers (uuid, username, tier_data, cached_at, expires_at)
-                            KEY (uuid)
-                            VALUES (?, ?, ?, ?, ?)
-                        """;
-
-                LocalDateTime now = LocalDateTime.now();
-                LocalDateTime expiresAt = now.plusMinutes(plugin.getConfigurationManager().getCacheDuration());
-
-                try (PreparedStatement statement = connection.prepareStatement(insertSQL)) {
-                    statement.setString(1, uuid);
-                    statement.setString(2, username);
-                    statement.setString(3, tierData.toJson());
-                    statement.setTimestamp(4, Timestamp.valueOf(now));
-                    statement.setTimestamp(5, Timestamp.valueOf(expiresAt));
-
-                    statement.executeUpdate();
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to cache tier data: " + e.getMessage());
+                storage.touch(uuid, now, expiresAt);
+            } catch (StorageException e) {
+                plugin.getLogger().warning(e.getMessage());
+            }
+        });
+    }
+    
+    private void writeBatch(List<CachedTier> writes) throws StorageException {
+        try {
+            storage.putAll(writes);
+        } catch (StorageException e) {
+            plugin.getLogger().warning(e.getMessage() + " - keeping " + writes.size() + " writes queued for a retry");
+            throw e;
+        }
+    }
+    
+    public CompletableFuture<String> getCachedUsername(String uuid) {
+        String username = usernameCache.get(uuid);
+        if (username != null) {
+            return CompletableFuture.completedFuture(username);
+        }
+        
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return storage.getIdentityByUuid(uuid, getIdentityCutoff()).map(this::rememberIdentity).orElse(null);
+            } catch (StorageException e) {
+                plugin.getLogger().warning(e.getMessage());
+                return null;
             }
         }, executorService);
     }
     
-    public CompletableFuture<Void> cleanExpiredCache() {
-        return CompletableFuture.runAsync(() -> {
+    public CompletableFuture<String> getCachedUuid(String username) {
+        String uuid = uuidCache.get(username.toLowerCase(Locale.ROOT));
+        if (uuid != null) {
+            return CompletableFuture.completedFuture(uuid);
+        }
+        
+        return CompletableFuture.supplyAsync(() -> {
             try {
-                String deleteSQL = "DELETE FROM player_tiers WHERE expires_at < ?";
-                try (PreparedStatement statement = connection.prepareStatement(deleteSQL)) {
-                    statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
-                    int deletedRows = statement.executeUpdate();
-                    
-                    if (deletedRows > 0 && plugin.getConfigurationManager().isDebugEnabled()) {
-                        plugin.getLogger().info("Cleaned " + deletedRows + " expired cache entries");
-                    }
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to clean expired cache: " + e.getMessage());
+                return storage.getIdentityByUsername(username, getIdentityCutoff())
+                    .map(identity -> {
+                        rememberIdentity(identity);
+                        return identity.getUuid();
+                    })
+                    .orElse(null);
+            } catch (StorageException e) {
+                plugin.getLogger().warning(e.getMessage());
+                return null;
             }
         }, executorService);
     }
     
+    public void cacheIdentity(String uuid, String username) {
+        if (username.equals(usernameCache.get(uuid))) {
+            return;
+        }
+        
+        CachedIdentity identity = new CachedIdentity(uuid, username, LocalDateTime.now());
+        rememberIdentity(identity);
+        
+        executorService.execute(() -> {
+            try {
+                storage.putIdentity(identity);
+            } catch (StorageException e) {
+                plugin.getLogger().warning(e.getMessage());
+            }
+        });
+    }
+    
+    private String rememberIdentity(CachedIdentity identity) {
+        long expiresAtMillis = toEpochMillis(identity.getResolvedAt().plusMinutes(plugin.getConfigurationManager().getIdentityCacheDuration()));
+        usernameCache.put(identity.getUuid(), identity.getUsername(), expiresAtMillis);
+        uuidCache.put(identity.getUsername().toLowerCase(Locale.ROOT), identity.getUuid(), expiresAtMillis);
+        return identity.getUsername();
+    }
+    
+    public CompletableFuture<Void> cleanExpiredCache() {
+        return CompletableFuture.runAsync(this::reclaimExpiredRows, executorService);
+    }
+    
+    private void reclaimExpiredRows() {
+        int chunkSize = Math.max(1, plugin.getConfigurationManager().getCleanupBatchSize());
+        long timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(plugin.getConfigurationManager().getCleanupTimeBudget());
+        LocalDateTime cutoff = getExpiryCutoff();
+        long start = System.nanoTime();
+        int deletedRows = 0;
+        
+        try {
+            int deletedChunk;
+            do {
+                deletedChunk = storage.expire(cutoff, chunkSize);
+                deletedRows += deletedChunk;
+            } while (deletedChunk == chunkSize && System.nanoTime() - start < timeBudgetNanos);
+        } catch (StorageException e) {
+            plugin.getLogger().warning(e.getMessage());
+        }
+        
+        long elapsedNanos = System.nanoTime() - start;
+        cleanupPasses.incrementAndGet();
+        reclaimedRows.addAndGet(deletedRows);
+        cleanupNanos.addAndGet(elapsedNanos);
+        
+        if (deletedRows > 0 && plugin.getConfigurationManager().isDebugEnabled()) {
+            plugin.getLogger().info("Cleaned " + deletedRows + " expired cache entries in " +
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms");
+        }
+    }
+    
     public CompletableFuture<Void> clearAllCache() {
+        memoryCache.invalidateAll();
+        writeBuffer.clear();
+        
         return CompletableFuture.runAsync(() -> {
             try {
-                String deleteSQL = "DELETE FROM player_tiers";
-                try (PreparedStatement statement = connection.prepareStatement(deleteSQL)) {
-                    int deletedRows = statement.executeUpdate();
-                    plugin.getLogger().info("Cleared " + deletedRows + " cache from database");
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to clear cache: " + e.getMessage());
+                int deletedRows = storage.clear();
+                plugin.getLogger().info("Cleared " + deletedRows + " cache from database");
+            } catch (StorageException e) {
+                plugin.getLogger().warning(e.getMessage());
             }
         }, executorService);
     }
     
+    public MemoryCache<String, PlayerTierData> getMemoryCache() {
+        return memoryCache;
+    }
+    
+    public TierStorage getStorage() {
+        return storage;
+    }
+    
+    public ConfigurationManager.StorageBackend getStorageBackend() {
+        return storageBackend;
+    }
+    
+    public ConnectionPool getConnectionPool() {
+        return storage instanceof H2TierStorage h2Storage ? h2Storage.getConnectionPool() : null;
+    }
+    
+    public WriteBehindBuffer<String, CachedTier> getWriteBuffer() {
+        return writeBuffer;
+    }
+    
+    public long getCleanupPasses() {
+        return cleanupPasses.get();
+    }
+    
+    public long getReclaimedRows() {
+        return reclaimedRows.get();
+    }
+    
+    public long getCleanupMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(cleanupNanos.get());
+    }
+    
+    private int getCacheDuration(PlayerTierData tierData) {
+        return tierData.isNotFound()
+            ? plugin.getConfigurationManager().getNegativeCacheDuration()
+            : plugin.getConfigurationManager().getCacheDuration();
+    }
+    
+    private LocalDateTime getStaleDeadline(LocalDateTime expiresAt) {
+        if (!plugin.getConfigurationManager().isStaleWhileRevalidate()) {
+            return expiresAt;
+        }
+        return expiresAt.plusMinutes(plugin.getConfigurationManager().getMaxStaleness());
+    }
+    
+    private LocalDateTime getExpiryCutoff() {
+        if (!plugin.getConfigurationManager().isStaleWhileRevalidate()) {
+            return LocalDateTime.now();
+        }
+        return LocalDateTime.now().minusMinutes(plugin.getConfigurationManager().getMaxStaleness());
+    }
+    
+    private LocalDateTime getIdentityCutoff() {
+        return LocalDateTime.now().minusMinutes(plugin.getConfigurationManager().getIdentityCacheDuration());
+    }
+    
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
     public void shutdown() {
+        maintenanceExecutor.shutdownNow();
+        executorService.shutdown();
+        
+        if (storage != null) {
+            int dropped = writeBuffer.drain();
+            if (dropped > 0) {
+                plugin.getLogger().warning("Dropped " + dropped + " cached tier writes that could not be saved");
+            }
+        }
+        
         try {
-            executorService.shutdown();
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for pending database tasks");
             }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Error closing database connection: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        if (storage != null) {
+            storage.close();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package net.tiertagger.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MemoryCache<K, V> {
+    
+    // Entries sampled per eviction, the least frequently used one (or any expired one) is dropped
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+    
+    private final Map<K, Entry<K, V>> entries;
+    // Dense copy of the entries so eviction can pick random candidates, guarded by itself
+    private final List<Entry<K, V>> slots;
+    private final int maximumSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    private final AtomicInteger accessesSinceAging;
+    
+    public MemoryCache(int maximumSize) {
+        this.entries = new ConcurrentHashMap<>();
+        this.slots = new ArrayList<>();
+        this.maximumSize = Math.max(1, maximumSize);
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+        this.accessesSinceAging = new AtomicInteger();
+    }
+    
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        
+        if (entry.isExpired(System.currentTimeMillis())) {
+            synchronized (slots) {
+                remove(entry);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        
+        entry.frequency.incrementAndGet();
+        hits.incrementAndGet();
+        recordAccess();
+        return entry.value;
+    }
+    
+    public void put(K key, V value, long expiresAtMillis) {
+        Entry<K, V> entry = new Entry<>(key, value, expiresAtMillis);
+        
+        synchronized (slots) {
+            Entry<K, V> previous = entries.put(key, entry);
+            if (previous != null) {
+                entry.slot = previous.slot;
+                slots.set(entry.slot, entry);
+                return;
+            }
+            
+            entry.slot = slots.size();
+            slots.add(entry);
+            if (entries.size() > maximumSize) {
+                evict(key);
+            }
+        }
+    }
+    
+    public void invalidate(K key) {
+        synchronized (slots) {
+            Entry<K, V> entry = entries.get(key);
+            if (entry != null) {
+                remove(entry);
+            }
+        }
+    }
+    
+    public void invalidateAll() {
+        synchronized (slots) {
+            entries.clear();
+            slots.clear();
+        }
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    public long getEvictions() {
+        return evictions.get();
+    }
+    
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+    
+    // Caller holds the slots lock
+    private void evict(K protectedKey) {
+        long now = System.currentTimeMillis();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        
+        while (entries.size() > maximumSize) {
+            Entry<K, V> victim = null;
+            
+            for (int i = 0; i < EVICTION_SAMPLE_SIZE; i++) {
+                Entry<K, V> candidate = slots.get(random.nextInt(slots.size()));
+                if (candidate.key.equals(protectedKey)) {
+                    continue;
+                }
+                
+                if (candidate.isExpired(now)) {
+                    victim = candidate;
+                    break;
+                }
+                
+                if (victim == null || candidate.frequency.get() < victim.frequency.get()) {
+                    victim = candidate;
+                }
+            }
+            
+            // No victim means every sample was the entry just inserted, there are at least two so the loop draws again
+            if (victim != null && remove(victim)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+    
+    // Caller holds the slots lock, the last slot is moved into the hole so the list stays dense
+    private boolean remove(Entry<K, V> entry) {
+        if (!entries.remove(entry.key, entry)) {
+            return false;
+        }
+        
+        Entry<K, V> last = slots.remove(slots.size() - 1);
+        if (last != entry) {
+            last.slot = entry.slot;
+            slots.set(entry.slot, last);
+        }
+        return true;
+    }
+    
+    private void recordAccess() {
+        // Periodically halve every counter so players that were hot a while ago can still be evicted
+        if (accessesSinceAging.incrementAndGet() < maximumSize * 10) {
+            return;
+        }
+        
+        accessesSinceAging.set(0);
+        for (Entry<K, V> entry : entries.values()) {
+            entry.frequency.updateAndGet(frequency -> frequency >> 1);
+        }
+    }
+    
+    private static class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long expiresAtMillis;
+        private final AtomicInteger frequency;
+        private int slot;
+        
+        private Entry(K key, V value, long expiresAtMillis) {
+            this.key = key;
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+            this.frequency = new AtomicInteger(1);
+        }
+        
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package net.tiertagger.cache;
+
+import java.sql.Connection;
+
+public class PooledConnection implements AutoCloseable {
+    
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private boolean released;
+    
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+    }
+    
+    public Connection getConnection() {
+        return connection;
+    }
+    
+    @Override
+    public void close() {
+        if (!released) {
+            released = true;
+            pool.release(connection);
+        }
+    }
+}
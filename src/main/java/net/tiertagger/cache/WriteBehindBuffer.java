@@ -0,0 +1,163 @@
+package net.tiertagger.cache;
+
+import net.tiertagger.cache.storage.StorageException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WriteBehindBuffer<K, V> {
+    
+    private static final long MIN_RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+    
+    private final Map<K, V> pending;
+    private final int batchSize;
+    private final Executor executor;
+    private final Writer<V> writer;
+    private final AtomicBoolean flushQueued;
+    private final Object flushLock;
+    private final AtomicLong flushes;
+    private final AtomicLong writtenEntries;
+    private final AtomicLong coalescedEntries;
+    private final AtomicLong failedFlushes;
+    private int consecutiveFailures;
+    private long retryAtNanos;
+    
+    public WriteBehindBuffer(int batchSize, Executor executor, Writer<V> writer) {
+        this.pending = new ConcurrentHashMap<>();
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = executor;
+        this.writer = writer;
+        this.flushQueued = new AtomicBoolean();
+        this.flushLock = new Object();
+        this.flushes = new AtomicLong();
+        this.writtenEntries = new AtomicLong();
+        this.coalescedEntries = new AtomicLong();
+        this.failedFlushes = new AtomicLong();
+    }
+    
+    public void start(ScheduledExecutorService scheduler, long flushIntervalMillis) {
+        long interval = Math.max(50, flushIntervalMillis);
+        scheduler.scheduleWithFixedDelay(this::requestFlush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    public void add(K key, V value) {
+        if (pending.put(key, value) != null) {
+            coalescedEntries.incrementAndGet();
+        }
+        
+        if (pending.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+    
+    public V getPending(K key) {
+        return pending.get(key);
+    }
+    
+    public void clear() {
+        pending.clear();
+    }
+    
+    public void requestFlush() {
+        if (pending.isEmpty() || !flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        
+        try {
+            executor.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        } catch (RejectedExecutionException e) {
+            flushQueued.set(false);
+        }
+    }
+    
+    public void flush() {
+        synchronized (flushLock) {
+            if (consecutiveFailures > 0 && System.nanoTime() - retryAtNanos < 0) {
+                return;
+            }
+            writePending();
+        }
+    }
+    
+    // Makes one last attempt regardless of backoff and returns how many writes could not be saved
+    public int drain() {
+        synchronized (flushLock) {
+            writePending();
+            int dropped = pending.size();
+            pending.clear();
+            return dropped;
+        }
+    }
+    
+    private void writePending() {
+        while (!pending.isEmpty()) {
+            List<Map.Entry<K, V>> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            for (Map.Entry<K, V> entry : pending.entrySet()) {
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+                if (batch.size() >= batchSize) {
+                    break;
+                }
+            }
+            
+            List<V> values = new ArrayList<>(batch.size());
+            for (Map.Entry<K, V> entry : batch) {
+                values.add(entry.getValue());
+            }
+            
+            try {
+                writer.write(values);
+            } catch (StorageException | RuntimeException e) {
+                // The batch stays pending and is retried once the backoff has passed
+                consecutiveFailures++;
+                failedFlushes.incrementAndGet();
+                long delayMillis = Math.min(MAX_RETRY_DELAY_MILLIS, MIN_RETRY_DELAY_MILLIS << Math.min(consecutiveFailures - 1, 6));
+                retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+                return;
+            }
+            consecutiveFailures = 0;
+            flushes.incrementAndGet();
+            writtenEntries.addAndGet(values.size());
+            
+            // Entries rewritten while the batch was in flight stay queued for the next batch
+            for (Map.Entry<K, V> entry : batch) {
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+    
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    public long getFlushes() {
+        return flushes.get();
+    }
+    
+    public long getWrittenEntries() {
+        return writtenEntries.get();
+    }
+    
+    public long getCoalescedEntries() {
+        return coalescedEntries.get();
+    }
+    
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+    
+    public interface Writer<V> {
+        void write(List<V> values) throws StorageException;
+    }
+}
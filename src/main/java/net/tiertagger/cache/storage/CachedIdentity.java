@@ -0,0 +1,28 @@
+package net.tiertagger.cache.storage;
+
+import java.time.LocalDateTime;
+
+public class CachedIdentity {
+    
+    private final String uuid;
+    private final String username;
+    private final LocalDateTime resolvedAt;
+    
+    public CachedIdentity(String uuid, String username, LocalDateTime resolvedAt) {
+        this.uuid = uuid;
+        this.username = username;
+        this.resolvedAt = resolvedAt;
+    }
+    
+    public String getUuid() {
+        return uuid;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public LocalDateTime getResolvedAt() {
+        return resolvedAt;
+    }
+}
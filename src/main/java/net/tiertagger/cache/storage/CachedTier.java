@@ -0,0 +1,42 @@
+package net.tiertagger.cache.storage;
+
+import net.tiertagger.models.PlayerTierData;
+
+import java.time.LocalDateTime;
+
+public class CachedTier {
+    
+    private final String uuid;
+    private final String username;
+    private final PlayerTierData tierData;
+    private final LocalDateTime cachedAt;
+    private final LocalDateTime expiresAt;
+    
+    public CachedTier(String uuid, String username, PlayerTierData tierData, LocalDateTime cachedAt, LocalDateTime expiresAt) {
+        this.uuid = uuid;
+        this.username = username;
+        this.tierData = tierData;
+        this.cachedAt = cachedAt;
+        this.expiresAt = expiresAt;
+    }
+    
+    public String getUuid() {
+        return uuid;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public PlayerTierData getTierData() {
+        return tierData;
+    }
+    
+    public LocalDateTime getCachedAt() {
+        return cachedAt;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
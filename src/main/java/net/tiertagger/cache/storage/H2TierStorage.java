@@ -0,0 +1,410 @@
+package net.tiertagger.cache.storage;
+
+import net.tiertagger.cache.ConnectionPool;
+import net.tiertagger.cache.PooledConnection;
+import net.tiertagger.models.PlayerTierData;
+import net.tiertagger.models.PlayerTierDataCodec;
+
+import java.io.File;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+public class H2TierStorage implements TierStorage {
+    
+    private static final int MIGRATION_CHUNK_SIZE = 500;
+    private static final int BATCH_READ_SIZE = 100;
+    
+    private static final String SELECT_COLUMNS = "SELECT uuid, username, tier_data, tier_blob, cached_at, expires_at FROM player_tiers";
+    
+    private final File databaseFile;
+    private final int poolSize;
+    private final long connectionTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final Logger logger;
+    private final ScheduledExecutorService maintenanceExecutor;
+    private ConnectionPool connectionPool;
+    
+    public H2TierStorage(File databaseFile, int poolSize, long connectionTimeoutMillis, long idleTimeoutMillis, Logger logger,
+                         ScheduledExecutorService maintenanceExecutor) {
+        this.databaseFile = databaseFile;
+        this.poolSize = poolSize;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.logger = logger;
+        this.maintenanceExecutor = maintenanceExecutor;
+    }
+    
+    @Override
+    public void open() throws StorageException {
+        try {
+            Class.forName("org.h2.Driver");
+            setupDatabase();
+            createTables();
+        } catch (ClassNotFoundException e) {
+            throw new StorageException("Database driver not found: " + e.getMessage(), e);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to initialize database: " + e.getMessage(), e);
+        }
+    }
+    
+    private void setupDatabase() {
+        if (databaseFile.getParentFile() != null && !databaseFile.getParentFile().exists()) {
+            databaseFile.getParentFile().mkdirs();
+        }
+        
+        String url = "jdbc:h2:" + databaseFile.getAbsolutePath().replace(".db", "") + ";AUTO_SERVER=TRUE";
+        connectionPool = new ConnectionPool(url, poolSize, connectionTimeoutMillis, idleTimeoutMillis);
+        connectionPool.startIdleEviction(maintenanceExecutor);
+    }
+    
+    private void createTables() throws SQLException {
+        String createTableSQL = """
+            CREATE TABLE IF NOT EXISTS player_tiers (
+                uuid VARCHAR(36) PRIMARY KEY,
+                username VARCHAR(16) NOT NULL,
+                tier_data TEXT,
+                tier_blob VARBINARY,
+                cached_at TIMESTAMP NOT NULL,
+                expires_at TIMESTAMP NOT NULL
+            )
+        """;
+        
+        String createIdentityTableSQL = """
+            CREATE TABLE IF NOT EXISTS player_identities (
+                uuid VARCHAR(36) PRIMARY KEY,
+                username VARCHAR_IGNORECASE(16) NOT NULL,
+                resolved_at TIMESTAMP NOT NULL
+            )
+        """;
+        
+        try (PooledConnection pooled = connectionPool.borrow();
+             Statement statement = pooled.getConnection().createStatement()) {
+            statement.executeUpdate(createTableSQL);
+            statement.executeUpdate("ALTER TABLE player_tiers ADD COLUMN IF NOT EXISTS tier_blob VARBINARY");
+            statement.executeUpdate("ALTER TABLE player_tiers ALTER COLUMN tier_data SET NULL");
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_player_tiers_expires_at ON player_tiers (expires_at)");
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_player_tiers_cached_at ON player_tiers (cached_at)");
+            statement.executeUpdate(createIdentityTableSQL);
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_player_identities_username ON player_identities (username)");
+        }
+    }
+    
+    @Override
+    public void migrate() throws StorageException {
+        String selectSQL = "SELECT uuid, tier_data FROM player_tiers WHERE tier_blob IS NULL LIMIT ?";
+        // Rows rewritten by the write buffer since they were read already hold a blob and are left alone
+        String updateSQL = "UPDATE player_tiers SET tier_blob = ?, tier_data = NULL WHERE uuid = ? AND tier_blob IS NULL";
+        String deleteSQL = "DELETE FROM player_tiers WHERE uuid = ? AND tier_blob IS NULL";
+        int migratedRows = 0;
+        int droppedRows = 0;
+        
+        try (PooledConnection pooled = connectionPool.borrow()) {
+            Connection connection = pooled.getConnection();
+            
+            while (true) {
+                List<String> uuids = new ArrayList<>();
+                List<String> legacyData = new ArrayList<>();
+                
+                try (PreparedStatement statement = connection.prepareStatement(selectSQL)) {
+                    statement.setInt(1, MIGRATION_CHUNK_SIZE);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            uuids.add(resultSet.getString("uuid"));
+                            legacyData.add(resultSet.getString("tier_data"));
+                        }
+                    }
+                }
+                
+                if (uuids.isEmpty()) {
+                    break;
+                }
+                
+                connection.setAutoCommit(false);
+                try (PreparedStatement update = connection.prepareStatement(updateSQL);
+                     PreparedStatement delete = connection.prepareStatement(deleteSQL)) {
+                    for (int i = 0; i < uuids.size(); i++) {
+                        byte[] encoded = encodeLegacyData(legacyData.get(i));
+                        if (encoded != null) {
+                            update.setBytes(1, encoded);
+                            update.setString(2, uuids.get(i));
+                            update.addBatch();
+                            migratedRows++;
+                        } else {
+                            delete.setString(1, uuids.get(i));
+                            delete.addBatch();
+                            droppedRows++;
+                        }
+                    }
+                    
+                    update.executeBatch();
+                    delete.executeBatch();
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to migrate cached tier data: " + e.getMessage(), e);
+        }
+        
+        if (migratedRows > 0 || droppedRows > 0) {
+            logger.info("Migrated " + migratedRows + " cached players to the binary format" +
+                (droppedRows > 0 ? " (" + droppedRows + " unreadable entries removed)" : ""));
+        }
+    }
+    
+    private byte[] encodeLegacyData(String tierDataJson) {
+        try {
+            return tierDataJson != null ? PlayerTierDataCodec.encode(PlayerTierData.fromJson(tierDataJson)) : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
+    @Override
+    public Optional<CachedTier> get(String uuid, LocalDateTime expiresAfter) throws StorageException {
+        String selectSQL = SELECT_COLUMNS + " WHERE uuid = ? AND expires_at > ?";
+        
+        try (PooledConnection pooled = connectionPool.borrow();
+             PreparedStatement statement = pooled.getConnection().prepareStatement(selectSQL)) {
+            statement.setString(1, uuid);
+            statement.setTimestamp(2, Timestamp.valueOf(expiresAfter));
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.of(readCachedTier(resultSet)) : Optional.empty();
+            }
+        } catch (SQLException | RuntimeException e) {
+            throw new StorageException("Failed to get cached tier data: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Map<String, CachedTier> getAll(Collection<String> uuids, LocalDateTime expiresAfter) throws StorageException {
+        Map<String, CachedTier> result = new HashMap<>();
+        List<String> remaining = new ArrayList<>(uuids);
+        
+        try (PooledConnection pooled = connectionPool.borrow()) {
+            for (int from = 0; from < remaining.size(); from += BATCH_READ_SIZE) {
+                List<String> chunk = remaining.subList(from, Math.min(remaining.size(), from + BATCH_READ_SIZE));
+                String selectSQL = SELECT_COLUMNS + " WHERE uuid IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) +
+                    ") AND expires_at > ?";
+                
+                try (PreparedStatement statement = pooled.getConnection().prepareStatement(selectSQL)) {
+                    int index = 1;
+                    for (String uuid : chunk) {
+                        statement.setString(index++, uuid);
+                    }
+                    statement.setTimestamp(index, Timestamp.valueOf(expiresAfter));
+                    
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            CachedTier tier = readCachedTier(resultSet);
+                            result.put(tier.getUuid(), tier);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            throw new StorageException("Failed to get cached tier data: " + e.getMessage(), e);
+        }
+        
+        return result;
+    }
+    
+    @Override
+    public int loadRecent(int limit, LocalDateTime expiresAfter, Consumer<CachedTier> consumer) throws StorageException {
+        String selectSQL = SELECT_COLUMNS + " WHERE expires_at > ? ORDER BY cached_at DESC LIMIT ?";
+        int loaded = 0;
+        
+        try (PooledConnection pooled = connectionPool.borrow();
+             PreparedStatement statement = pooled.getConnection().prepareStatement(selectSQL)) {
+            statement.setTimestamp(1, Timestamp.valueOf(expiresAfter));
+            statement.setInt(2, limit);
+            statement.setFetchSize(BATCH_READ_SIZE);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    try {
+                        consumer.accept(readCachedTier(resultSet));
+                        loaded++;
+                    } catch (RuntimeException ignored) {
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to load recent tier data: " + e.getMessage(), e);
+        }
+        
+        return loaded;
+    }
+    
+    private CachedTier readCachedTier(ResultSet resultSet) throws SQLException {
+        byte[] tierBlob = resultSet.getBytes("tier_blob");
+        PlayerTierData tierData = tierBlob != null
+            ? PlayerTierDataCodec.decode(tierBlob)
+            : PlayerTierData.fromJson(resultSet.getString("tier_data"));
+        
+        return new CachedTier(
+            resultSet.getString("uuid"),
+            resultSet.getString("username"),
+            tierData,
+            resultSet.getTimestamp("cached_at").toLocalDateTime(),
+            resultSet.getTimestamp("expires_at").toLocalDateTime()
+        );
+    }
+    
+    @Override
+    public void put(CachedTier tier) throws StorageException {
+        putAll(List.of(tier));
+    }
+    
+    @Override
+    public void putAll(Collection<CachedTier> tiers) throws StorageException {
+        String insertSQL = """
+                    MERGE INTO player_tiers (uuid, username, tier_data, tier_blob, cached_at, expires_at)
+                    KEY (uuid)
+                    VALUES (?, ?, NULL, ?, ?, ?)
+                """;
+        
+        try (PooledConnection pooled = connectionPool.borrow()) {
+            Connection connection = pooled.getConnection();
+            connection.setAutoCommit(false);
+            
+            try (PreparedStatement statement = connection.prepareStatement(insertSQL)) {
+                for (CachedTier tier : tiers) {
+                    statement.setString(1, tier.getUuid());
+                    statement.setString(2, tier.getUsername());
+                    statement.setBytes(3, PlayerTierDataCodec.encode(tier.getTierData()));
+                    statement.setTimestamp(4, Timestamp.valueOf(tier.getCachedAt()));
+                    statement.setTimestamp(5, Timestamp.valueOf(tier.getExpiresAt()));
+                    statement.addBatch();
+                }
+                
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to cache tier data for " + tiers.size() + " players: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public void touch(String uuid, LocalDateTime cachedAt, LocalDateTime expiresAt) throws StorageException {
+        try (PooledConnection pooled = connectionPool.borrow();
+             PreparedStatement statement = pooled.getConnection().prepareStatement(
+                 "UPDATE player_tiers SET cached_at = ?, expires_at = ? WHERE uuid = ?")) {
+            statement.setTimestamp(1, Timestamp.valueOf(cachedAt));
+            statement.setTimestamp(2, Timestamp.valueOf(expiresAt));
+            statement.setString(3, uuid);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new StorageException("Failed to extend cached tier data: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public int expire(LocalDateTime expiredBefore, int limit) throws StorageException {
+        try (PooledConnection pooled = connectionPool.borrow();
+             PreparedStatement statement = pooled.getConnection().prepareStatement(
+                 "DELETE FROM player_tiers WHERE expires_at < ? FETCH FIRST ? ROWS ONLY")) {
+            statement.setTimestamp(1, Timestamp.valueOf(expiredBefore));
+            statement.setInt(2, limit);
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new StorageException("Failed to clean expired cache: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public int clear() throws StorageException {
+        try (PooledConnection pooled = connectionPool.borrow();
+             PreparedStatement statement = pooled.getConnection().prepareStatement("DELETE FROM player_tiers")) {
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new StorageException("Failed to clear cache: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Optional<CachedIdentity> getIdentityByUuid(String uuid, LocalDateTime resolvedAfter) throws StorageException {
+        return findIdentity("uuid", uuid, resolvedAfter);
+    }
+    
+    @Override
+    public Optional<CachedIdentity> getIdentityByUsername(String username, LocalDateTime resolvedAfter) throws StorageException {
+        return findIdentity("username", username, resolvedAfter);
+    }
+    
+    private Optional<CachedIdentity> findIdentity(String column, String value, LocalDateTime resolvedAfter) throws StorageException {
+        String selectSQL = "SELECT uuid, username, resolved_at FROM player_identities WHERE " + column + " = ? AND resolved_at > ?";
+        
+        try (PooledConnection pooled = connectionPool.borrow();
+             PreparedStatement statement = pooled.getConnection().prepareStatement(selectSQL)) {
+            statement.setString(1, value);
+            statement.setTimestamp(2, Timestamp.valueOf(resolvedAfter));
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return Optional.empty();
+                }
+                return Optional.of(new CachedIdentity(
+                    resultSet.getString("uuid"),
+                    resultSet.getString("username"),
+                    resultSet.getTimestamp("resolved_at").toLocalDateTime()
+                ));
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to get cached player identity: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public void putIdentity(CachedIdentity identity) throws StorageException {
+        String deleteSQL = "DELETE FROM player_identities WHERE username = ? AND uuid <> ?";
+        String mergeSQL = "MERGE INTO player_identities (uuid, username, resolved_at) KEY (uuid) VALUES (?, ?, ?)";
+        
+        try (PooledConnection pooled = connectionPool.borrow()) {
+            Connection connection = pooled.getConnection();
+            connection.setAutoCommit(false);
+            
+            try (PreparedStatement delete = connection.prepareStatement(deleteSQL);
+                 PreparedStatement merge = connection.prepareStatement(mergeSQL)) {
+                delete.setString(1, identity.getUsername());
+                delete.setString(2, identity.getUuid());
+                delete.executeUpdate();
+                
+                merge.setString(1, identity.getUuid());
+                merge.setString(2, identity.getUsername());
+                merge.setTimestamp(3, Timestamp.valueOf(identity.getResolvedAt()));
+                merge.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to cache identity of " + identity.getUsername() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+    
+    @Override
+    public void close() {
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+    }
+}
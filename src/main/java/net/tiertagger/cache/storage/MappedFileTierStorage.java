@@ -0,0 +1,538 @@
+package net.tiertagger.cache.storage;
+
+import net.tiertagger.models.PlayerTierData;
+import net.tiertagger.models.PlayerTierDataCodec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+public class MappedFileTierStorage implements TierStorage {
+    
+    private static final int MAGIC = 0x54544D46;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int INITIAL_SIZE = 1 << 20;
+    private static final int COMPACTION_THRESHOLD = 1 << 20;
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_DELETE = 2;
+    private static final byte RECORD_IDENTITY = 3;
+    
+    private final File file;
+    private final Logger logger;
+    private final Map<String, IndexEntry> index;
+    private final Map<String, IdentityEntry> identities;
+    private final Map<String, String> identityUuids;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private long garbageBytes;
+    private long compactionThreshold;
+    
+    public MappedFileTierStorage(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+        this.index = new HashMap<>();
+        this.identities = new HashMap<>();
+        this.identityUuids = new HashMap<>();
+        this.compactionThreshold = COMPACTION_THRESHOLD;
+    }
+    
+    @Override
+    public synchronized void open() throws StorageException {
+        try {
+            if (file.getParentFile() != null && !file.getParentFile().exists()) {
+                file.getParentFile().mkdirs();
+            }
+            
+            mapFile();
+            boolean fresh = buffer.getInt(0) == 0 && buffer.getInt(4) == 0;
+            
+            if (fresh) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, FORMAT_VERSION);
+                buffer.putInt(HEADER_SIZE, 0);
+                writePosition = HEADER_SIZE;
+                return;
+            }
+            
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new StorageException("Unrecognized tier storage file: " + file.getAbsolutePath());
+            }
+            
+            loadIndex();
+        } catch (IOException e) {
+            throw new StorageException("Failed to open tier storage file: " + e.getMessage(), e);
+        }
+    }
+    
+    private void mapFile() throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_SIZE));
+    }
+    
+    private void loadIndex() {
+        int position = HEADER_SIZE;
+        
+        while (position + 4 <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            
+            try {
+                if (length < 0 || position + 4 + length > buffer.capacity()) {
+                    throw new IllegalArgumentException("record length " + length + " runs past the end of the file");
+                }
+                indexRecord(position, buffer.slice(position + 4, length));
+            } catch (RuntimeException e) {
+                // A crash mid append or mid compaction leaves a torn tail, everything from here on is dropped
+                logger.warning("Tier storage file " + file.getName() + " has a corrupt record at offset " + position +
+                    " (" + e + "), discarding the rest of the file");
+                buffer.putInt(position, 0);
+                break;
+            }
+            
+            position += 4 + length;
+        }
+        
+        writePosition = position;
+    }
+    
+    private void indexRecord(int position, ByteBuffer record) {
+        int recordSize = 4 + record.remaining();
+        byte kind = record.get();
+        String uuid = readString(record);
+        
+        if (kind == RECORD_PUT) {
+            readString(record);
+            long cachedAtMillis = record.getLong();
+            long expiresAtMillis = record.getLong();
+            if (record.getInt() != record.remaining()) {
+                throw new IllegalArgumentException("tier data length does not match the record");
+            }
+            
+            IndexEntry previous = index.put(uuid, new IndexEntry(position, recordSize, cachedAtMillis, expiresAtMillis));
+            if (previous != null) {
+                garbageBytes += previous.size;
+            }
+        } else if (kind == RECORD_IDENTITY) {
+            String username = readString(record);
+            long resolvedAtMillis = record.getLong();
+            if (record.hasRemaining()) {
+                throw new IllegalArgumentException("identity record has trailing bytes");
+            }
+            
+            indexIdentity(uuid, new IdentityEntry(position, recordSize, username, resolvedAtMillis));
+        } else if (kind == RECORD_DELETE) {
+            if (record.hasRemaining()) {
+                throw new IllegalArgumentException("delete record has trailing bytes");
+            }
+            
+            IndexEntry previous = index.remove(uuid);
+            garbageBytes += recordSize + (previous != null ? previous.size : 0);
+        } else {
+            throw new IllegalArgumentException("unknown record kind " + kind);
+        }
+    }
+    
+    @Override
+    public synchronized Optional<CachedTier> get(String uuid, LocalDateTime expiresAfter) {
+        IndexEntry entry = index.get(uuid);
+        if (entry == null || entry.expiresAtMillis <= toEpochMillis(expiresAfter)) {
+            return Optional.empty();
+        }
+        return Optional.of(readTier(entry));
+    }
+    
+    @Override
+    public synchronized Map<String, CachedTier> getAll(Collection<String> uuids, LocalDateTime expiresAfter) {
+        Map<String, CachedTier> result = new HashMap<>();
+        for (String uuid : uuids) {
+            get(uuid, expiresAfter).ifPresent(tier -> result.put(uuid, tier));
+        }
+        return result;
+    }
+    
+    @Override
+    public synchronized int loadRecent(int limit, LocalDateTime expiresAfter, Consumer<CachedTier> consumer) {
+        long cutoff = toEpochMillis(expiresAfter);
+        List<IndexEntry> recent = index.values().stream()
+            .filter(entry -> entry.expiresAtMillis > cutoff)
+            .sorted(Comparator.comparingLong((IndexEntry entry) -> entry.cachedAtMillis).reversed())
+            .limit(limit)
+            .toList();
+        
+        for (IndexEntry entry : recent) {
+            consumer.accept(readTier(entry));
+        }
+        return recent.size();
+    }
+    
+    @Override
+    public synchronized void put(CachedTier tier) throws StorageException {
+        append(tier);
+        compactIfNeeded();
+        buffer.force();
+    }
+    
+    @Override
+    public synchronized void putAll(Collection<CachedTier> tiers) throws StorageException {
+        for (CachedTier tier : tiers) {
+            append(tier);
+        }
+        compactIfNeeded();
+        buffer.force();
+    }
+    
+    @Override
+    public synchronized void touch(String uuid, LocalDateTime cachedAt, LocalDateTime expiresAt) {
+        IndexEntry entry = index.get(uuid);
+        if (entry == null) {
+            return;
+        }
+        
+        // Timestamps have a fixed width, so they are overwritten in place
+        int uuidLength = buffer.getShort(entry.offset + 5) & 0xFFFF;
+        int usernameLength = buffer.getShort(entry.offset + 7 + uuidLength) & 0xFFFF;
+        int timestampsOffset = entry.offset + 9 + uuidLength + usernameLength;
+        long cachedAtMillis = toEpochMillis(cachedAt);
+        long expiresAtMillis = toEpochMillis(expiresAt);
+        
+        buffer.putLong(timestampsOffset, cachedAtMillis);
+        buffer.putLong(timestampsOffset + 8, expiresAtMillis);
+        buffer.force();
+        index.put(uuid, new IndexEntry(entry.offset, entry.size, cachedAtMillis, expiresAtMillis));
+    }
+    
+    @Override
+    public synchronized int expire(LocalDateTime expiredBefore, int limit) throws StorageException {
+        long cutoff = toEpochMillis(expiredBefore);
+        List<String> expired = new ArrayList<>();
+        
+        for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+            if (entry.getValue().expiresAtMillis < cutoff) {
+                expired.add(entry.getKey());
+                if (expired.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        
+        for (String uuid : expired) {
+            appendDelete(uuid);
+        }
+        
+        if (!expired.isEmpty()) {
+            compactIfNeeded();
+            buffer.force();
+        }
+        
+        return expired.size();
+    }
+    
+    @Override
+    public synchronized int clear() throws StorageException {
+        int size = index.size();
+        List<IdentityEntry> keptIdentities = new ArrayList<>(identities.values());
+        List<String> keptUuids = new ArrayList<>(identities.keySet());
+        
+        index.clear();
+        identities.clear();
+        identityUuids.clear();
+        garbageBytes = 0;
+        writePosition = HEADER_SIZE;
+        buffer.putInt(HEADER_SIZE, 0);
+        
+        for (int i = 0; i < keptIdentities.size(); i++) {
+            appendIdentity(keptUuids.get(i), keptIdentities.get(i).username, keptIdentities.get(i).resolvedAtMillis);
+        }
+        
+        buffer.force();
+        return size;
+    }
+    
+    @Override
+    public synchronized Optional<CachedIdentity> getIdentityByUuid(String uuid, LocalDateTime resolvedAfter) {
+        IdentityEntry entry = identities.get(uuid);
+        if (entry == null || entry.resolvedAtMillis <= toEpochMillis(resolvedAfter)) {
+            return Optional.empty();
+        }
+        return Optional.of(new CachedIdentity(uuid, entry.username, toLocalDateTime(entry.resolvedAtMillis)));
+    }
+    
+    @Override
+    public synchronized Optional<CachedIdentity> getIdentityByUsername(String username, LocalDateTime resolvedAfter) {
+        String uuid = identityUuids.get(username.toLowerCase(Locale.ROOT));
+        return uuid != null ? getIdentityByUuid(uuid, resolvedAfter) : Optional.empty();
+    }
+    
+    @Override
+    public synchronized void putIdentity(CachedIdentity identity) throws StorageException {
+        appendIdentity(identity.getUuid(), identity.getUsername(), toEpochMillis(identity.getResolvedAt()));
+        compactIfNeeded();
+        buffer.force();
+    }
+    
+    @Override
+    public synchronized void close() {
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+    
+    private void append(CachedTier tier) throws StorageException {
+        byte[] uuid = tier.getUuid().getBytes(StandardCharsets.UTF_8);
+        byte[] username = tier.getUsername().getBytes(StandardCharsets.UTF_8);
+        byte[] data = PlayerTierDataCodec.encode(tier.getTierData());
+        long cachedAtMillis = toEpochMillis(tier.getCachedAt());
+        long expiresAtMillis = toEpochMillis(tier.getExpiresAt());
+        
+        ByteBuffer record = ByteBuffer.allocate(4 + 1 + 2 + uuid.length + 2 + username.length + 8 + 8 + 4 + data.length);
+        record.putInt(record.capacity() - 4);
+        record.put(RECORD_PUT);
+        record.putShort((short) uuid.length).put(uuid);
+        record.putShort((short) username.length).put(username);
+        record.putLong(cachedAtMillis);
+        record.putLong(expiresAtMillis);
+        record.putInt(data.length).put(data);
+        
+        int position = write(record.array());
+        IndexEntry previous = index.put(tier.getUuid(), new IndexEntry(position, record.capacity(), cachedAtMillis, expiresAtMillis));
+        if (previous != null) {
+            garbageBytes += previous.size;
+        }
+    }
+    
+    private void appendIdentity(String uuid, String username, long resolvedAtMillis) throws StorageException {
+        byte[] uuidBytes = uuid.getBytes(StandardCharsets.UTF_8);
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        
+        ByteBuffer record = ByteBuffer.allocate(4 + 1 + 2 + uuidBytes.length + 2 + usernameBytes.length + 8);
+        record.putInt(record.capacity() - 4);
+        record.put(RECORD_IDENTITY);
+        record.putShort((short) uuidBytes.length).put(uuidBytes);
+        record.putShort((short) usernameBytes.length).put(usernameBytes);
+        record.putLong(resolvedAtMillis);
+        
+        int position = write(record.array());
+        indexIdentity(uuid, new IdentityEntry(position, record.capacity(), username, resolvedAtMillis));
+    }
+    
+    private void indexIdentity(String uuid, IdentityEntry entry) {
+        String previousOwner = identityUuids.put(entry.username.toLowerCase(Locale.ROOT), uuid);
+        if (previousOwner != null && !previousOwner.equals(uuid)) {
+            IdentityEntry dropped = identities.remove(previousOwner);
+            if (dropped != null) {
+                garbageBytes += dropped.size;
+            }
+        }
+        
+        IdentityEntry previous = identities.put(uuid, entry);
+        if (previous != null) {
+            garbageBytes += previous.size;
+            if (!previous.username.equalsIgnoreCase(entry.username)) {
+                identityUuids.remove(previous.username.toLowerCase(Locale.ROOT), uuid);
+            }
+        }
+    }
+    
+    private void appendDelete(String uuid) throws StorageException {
+        byte[] uuidBytes = uuid.getBytes(StandardCharsets.UTF_8);
+        
+        ByteBuffer record = ByteBuffer.allocate(4 + 1 + 2 + uuidBytes.length);
+        record.putInt(record.capacity() - 4);
+        record.put(RECORD_DELETE);
+        record.putShort((short) uuidBytes.length).put(uuidBytes);
+        
+        write(record.array());
+        IndexEntry previous = index.remove(uuid);
+        garbageBytes += record.capacity() + (previous != null ? previous.size : 0);
+    }
+    
+    private int write(byte[] record) throws StorageException {
+        ensureCapacity(record.length + 4);
+        
+        int position = writePosition;
+        // Terminate the log first so a torn write is never read back as a record
+        buffer.putInt(position + record.length, 0);
+        buffer.put(position, record);
+        writePosition += record.length;
+        return position;
+    }
+    
+    private void ensureCapacity(int bytes) throws StorageException {
+        long required = (long) writePosition + bytes;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        
+        long newSize = Math.max((long) buffer.capacity() * 2, required);
+        if (newSize > Integer.MAX_VALUE) {
+            throw new StorageException("Tier storage file is full: " + file.getAbsolutePath());
+        }
+        
+        try {
+            buffer.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+        } catch (IOException e) {
+            throw new StorageException("Failed to grow tier storage file: " + e.getMessage(), e);
+        }
+    }
+    
+    // Live records are written to a separate file which replaces the log only once it is complete on disk,
+    // so a crash at any point leaves either the old log or the compacted one, never a mix of both
+    private void compactIfNeeded() throws StorageException {
+        if (garbageBytes < compactionThreshold || garbageBytes < writePosition / 2) {
+            return;
+        }
+        
+        File compacted = new File(file.getPath() + ".compact");
+        List<IndexEntry> tierEntries = new ArrayList<>(index.values());
+        List<IdentityEntry> identityEntries = new ArrayList<>(identities.values());
+        int[] offsets = new int[tierEntries.size() + identityEntries.size()];
+        int position = HEADER_SIZE;
+        
+        try (FileChannel out = FileChannel.open(compacted.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            writeFully(out, header, 0);
+            
+            for (int i = 0; i < offsets.length; i++) {
+                int offset = i < tierEntries.size() ? tierEntries.get(i).offset : identityEntries.get(i - tierEntries.size()).offset;
+                int size = i < tierEntries.size() ? tierEntries.get(i).size : identityEntries.get(i - tierEntries.size()).size;
+                writeFully(out, buffer.slice(offset, size), position);
+                offsets[i] = position;
+                position += size;
+            }
+            
+            writeFully(out, ByteBuffer.allocate(4), position);
+            out.force(true);
+        } catch (IOException e) {
+            compacted.delete();
+            failCompaction(e);
+        }
+        
+        boolean replaced = false;
+        try {
+            buffer.force();
+            channel.close();
+            Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            replaced = true;
+        } catch (IOException e) {
+            // Some platforms refuse to replace a file that is still mapped, the old log stays in use
+            compacted.delete();
+            logger.warning("Failed to replace tier storage file with its compacted copy: " + e.getMessage());
+        } finally {
+            try {
+                mapFile();
+            } catch (IOException e) {
+                throw new StorageException("Failed to reopen tier storage file after compaction: " + e.getMessage(), e);
+            }
+        }
+        
+        if (!replaced) {
+            compactionThreshold = garbageBytes + COMPACTION_THRESHOLD;
+            return;
+        }
+        
+        for (int i = 0; i < offsets.length; i++) {
+            if (i < tierEntries.size()) {
+                tierEntries.get(i).offset = offsets[i];
+            } else {
+                identityEntries.get(i - tierEntries.size()).offset = offsets[i];
+            }
+        }
+        writePosition = position;
+        garbageBytes = 0;
+        compactionThreshold = COMPACTION_THRESHOLD;
+    }
+    
+    // Backs off until another threshold worth of garbage has built up instead of retrying on every write
+    private void failCompaction(IOException e) throws StorageException {
+        compactionThreshold = garbageBytes + COMPACTION_THRESHOLD;
+        throw new StorageException("Failed to compact tier storage file: " + e.getMessage(), e);
+    }
+    
+    private static void writeFully(FileChannel out, ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += out.write(source, position);
+        }
+    }
+    
+    private CachedTier readTier(IndexEntry entry) {
+        ByteBuffer record = buffer.slice(entry.offset + 4, entry.size - 4);
+        record.get();
+        
+        String uuid = readString(record);
+        String username = readString(record);
+        LocalDateTime cachedAt = toLocalDateTime(record.getLong());
+        LocalDateTime expiresAt = toLocalDateTime(record.getLong());
+        
+        byte[] data = new byte[record.getInt()];
+        record.get(data);
+        PlayerTierData tierData = PlayerTierDataCodec.decode(data);
+        
+        return new CachedTier(uuid, username, tierData, cachedAt, expiresAt);
+    }
+    
+    private String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getShort() & 0xFFFF];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    private static class IndexEntry {
+        private int offset;
+        private final int size;
+        private final long cachedAtMillis;
+        private final long expiresAtMillis;
+        
+        private IndexEntry(int offset, int size, long cachedAtMillis, long expiresAtMillis) {
+            this.offset = offset;
+            this.size = size;
+            this.cachedAtMillis = cachedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+    
+    private static class IdentityEntry {
+        private int offset;
+        private final int size;
+        private final String username;
+        private final long resolvedAtMillis;
+        
+        private IdentityEntry(int offset, int size, String username, long resolvedAtMillis) {
+            this.offset = offset;
+            this.size = size;
+            this.username = username;
+            this.resolvedAtMillis = resolvedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package net.tiertagger.cache.storage;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+public class MemoryTierStorage implements TierStorage {
+    
+    private final Map<String, CachedTier> tiers;
+    private final Map<String, CachedIdentity> identities;
+    private final Map<String, String> identityUuids;
+    
+    public MemoryTierStorage() {
+        this.tiers = new ConcurrentHashMap<>();
+        this.identities = new ConcurrentHashMap<>();
+        this.identityUuids = new ConcurrentHashMap<>();
+    }
+    
+    @Override
+    public void open() {
+    }
+    
+    @Override
+    public Optional<CachedTier> get(String uuid, LocalDateTime expiresAfter) {
+        CachedTier tier = tiers.get(uuid);
+        return tier != null && tier.getExpiresAt().isAfter(expiresAfter) ? Optional.of(tier) : Optional.empty();
+    }
+    
+    @Override
+    public Map<String, CachedTier> getAll(Collection<String> uuids, LocalDateTime expiresAfter) {
+        Map<String, CachedTier> result = new HashMap<>();
+        for (String uuid : uuids) {
+            get(uuid, expiresAfter).ifPresent(tier -> result.put(uuid, tier));
+        }
+        return result;
+    }
+    
+    @Override
+    public int loadRecent(int limit, LocalDateTime expiresAfter, Consumer<CachedTier> consumer) {
+        List<CachedTier> recent = tiers.values().stream()
+            .filter(tier -> tier.getExpiresAt().isAfter(expiresAfter))
+            .sorted(Comparator.comparing(CachedTier::getCachedAt).reversed())
+            .limit(limit)
+            .toList();
+        
+        recent.forEach(consumer);
+        return recent.size();
+    }
+    
+    @Override
+    public void put(CachedTier tier) {
+        tiers.put(tier.getUuid(), tier);
+    }
+    
+    @Override
+    public void putAll(Collection<CachedTier> tiers) {
+        for (CachedTier tier : tiers) {
+            put(tier);
+        }
+    }
+    
+    @Override
+    public void touch(String uuid, LocalDateTime cachedAt, LocalDateTime expiresAt) {
+        tiers.computeIfPresent(uuid, (key, tier) ->
+            new CachedTier(uuid, tier.getUsername(), tier.getTierData(), cachedAt, expiresAt));
+    }
+    
+    @Override
+    public int expire(LocalDateTime expiredBefore, int limit) {
+        int removed = 0;
+        Iterator<CachedTier> iterator = tiers.values().iterator();
+        
+        while (iterator.hasNext() && removed < limit) {
+            if (iterator.next().getExpiresAt().isBefore(expiredBefore)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        
+        return removed;
+    }
+    
+    @Override
+    public int clear() {
+        int size = tiers.size();
+        tiers.clear();
+        return size;
+    }
+    
+    @Override
+    public Optional<CachedIdentity> getIdentityByUuid(String uuid, LocalDateTime resolvedAfter) {
+        CachedIdentity identity = identities.get(uuid);
+        return identity != null && identity.getResolvedAt().isAfter(resolvedAfter) ? Optional.of(identity) : Optional.empty();
+    }
+    
+    @Override
+    public Optional<CachedIdentity> getIdentityByUsername(String username, LocalDateTime resolvedAfter) {
+        String uuid = identityUuids.get(username.toLowerCase(Locale.ROOT));
+        return uuid != null ? getIdentityByUuid(uuid, resolvedAfter) : Optional.empty();
+    }
+    
+    @Override
+    public synchronized void putIdentity(CachedIdentity identity) {
+        String usernameKey = identity.getUsername().toLowerCase(Locale.ROOT);
+        String previousOwner = identityUuids.put(usernameKey, identity.getUuid());
+        if (previousOwner != null && !previousOwner.equals(identity.getUuid())) {
+            identities.remove(previousOwner);
+        }
+        
+        CachedIdentity previous = identities.put(identity.getUuid(), identity);
+        if (previous != null && !previous.getUsername().equalsIgnoreCase(identity.getUsername())) {
+            identityUuids.remove(previous.getUsername().toLowerCase(Locale.ROOT), identity.getUuid());
+        }
+    }
+    
+    @Override
+    public void close() {
+        tiers.clear();
+        identities.clear();
+        identityUuids.clear();
+    }
+}
@@ -0,0 +1,43 @@
+package net.tiertagger.cache.storage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface TierStorage {
+    
+    void open() throws StorageException;
+    
+    // Background upkeep run once after open, e.g. converting rows written by older versions
+    default void migrate() throws StorageException {
+    }
+    
+    Optional<CachedTier> get(String uuid, LocalDateTime expiresAfter) throws StorageException;
+    
+    Map<String, CachedTier> getAll(Collection<String> uuids, LocalDateTime expiresAfter) throws StorageException;
+    
+    // Streams the most recently cached entries, newest first, and returns how many were read
+    int loadRecent(int limit, LocalDateTime expiresAfter, Consumer<CachedTier> consumer) throws StorageException;
+    
+    void put(CachedTier tier) throws StorageException;
+    
+    void putAll(Collection<CachedTier> tiers) throws StorageException;
+    
+    // Moves the timestamps of an unchanged entry forward without rewriting its data
+    void touch(String uuid, LocalDateTime cachedAt, LocalDateTime expiresAt) throws StorageException;
+    
+    int expire(LocalDateTime expiredBefore, int limit) throws StorageException;
+    
+    int clear() throws StorageException;
+    
+    Optional<CachedIdentity> getIdentityByUuid(String uuid, LocalDateTime resolvedAfter) throws StorageException;
+    
+    Optional<CachedIdentity> getIdentityByUsername(String username, LocalDateTime resolvedAfter) throws StorageException;
+    
+    // A username belongs to one account at a time, storing it drops any other UUID that held it
+    void putIdentity(CachedIdentity identity) throws StorageException;
+    
+    void close();
+}
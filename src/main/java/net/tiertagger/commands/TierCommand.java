@@ -2,6 +2,7 @@ package net.tiertagger.commands;
 
 import net.tiertagger.TierTaggerPlugin;
 import net.tiertagger.models.PlayerTierData;
+import net.tiertagger.services.RequestScheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -9,6 +10,8 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.UUID;
+
 public class TierCommand implements CommandExecutor {
     
     private final TierTaggerPlugin plugin;
@@ -34,10 +37,7 @@ public class TierCommand implements CommandExecutor {
         
         sender.sendMessage(plugin.getLanguageManager().getMessage("commands.tier.searching", "player", targetPlayerName));
         
-        boolean isUuid = plugin.getConfigurationManager().getApiProvider() ==
-            net.tiertagger.config.ConfigurationManager.ApiProvider.MCTIERS;
-        
-        if (targetPlayer != null && isUuid) {
+        if (targetPlayer != null) {
             searchPlayerTier(sender, targetPlayer.getUniqueId().toString(), targetPlayerName, true);
         } else {
             searchPlayerTier(sender, null, targetPlayerName, false);
@@ -47,13 +47,18 @@ public class TierCommand implements CommandExecutor {
     }
     
     private void searchPlayerTier(CommandSender sender, String uuid, String username, boolean hasUuid) {
-        boolean isUuid = plugin.getConfigurationManager().getApiProvider() ==
-            net.tiertagger.config.ConfigurationManager.ApiProvider.MCTIERS;
-        
-        if (hasUuid && isUuid && uuid != null) {
+        if (hasUuid && uuid != null) {
             plugin.getDatabaseManager().getCachedTierData(uuid).thenAccept(cachedData -> {
                 if (cachedData.isPresent()) {
-                    displayTierInformation(sender, cachedData.get(), username, true);
+                    if (cachedData.get().isNotFound()) {
+                        sender.sendMessage(plugin.getLanguageManager().getMessage("commands.tier.not_found", "player", username));
+                    } else {
+                        displayTierInformation(sender, cachedData.get(), username, true);
+                    }
+                    
+                    if (cachedData.get().isStale()) {
+                        refreshInBackground(uuid, username, cachedData.get());
+                    }
                 } else {
                     fetchFromApi(sender, uuid, username, true);
                 }
@@ -66,11 +71,13 @@ public class TierCommand implements CommandExecutor {
     private void fetchFromApi(CommandSender sender, String uuid, String username, boolean hasUuid) {
         String identifier = hasUuid ? uuid : username;
         
-        plugin.getApiServiceManager().fetchPlayerTierData(identifier, hasUuid).thenAccept(tierData -> {
-            if (tierData != null) {
-                if (hasUuid) {
-                    plugin.getDatabaseManager().cacheTierData(uuid, username, tierData);
-                }
+        plugin.getApiServiceManager().fetchPlayerTierData(identifier, hasUuid, RequestScheduler.Priority.INTERACTIVE).thenAccept(tierData -> {
+            if (tierData != null && hasUuid) {
+                plugin.getDatabaseManager().cacheTierData(uuid, username, tierData);
+                updateOnlinePlayer(uuid, tierData);
+            }
+            
+            if (tierData != null && !tierData.isNotFound()) {
                 displayTierInformation(sender, tierData, username, false);
             } else {
                 sender.sendMessage(plugin.getLanguageManager().getMessage("commands.tier.not_found", "player", username));
@@ -78,6 +85,33 @@ public class TierCommand implements CommandExecutor {
         });
     }
     
+    private void refreshInBackground(String uuid, String username, PlayerTierData previous) {
+        plugin.getApiServiceManager().fetchPlayerTierData(uuid, true, RequestScheduler.Priority.BACKGROUND, previous).thenAccept(tierData -> {
+            if (tierData != null && tierData == previous) {
+                plugin.getDatabaseManager().extendTierData(uuid, username, tierData);
+            } else if (tierData != null) {
+                plugin.getDatabaseManager().cacheTierData(uuid, username, tierData);
+                updateOnlinePlayer(uuid, tierData);
+            }
+        });
+    }
+    
+    // Keeps the nametag and placeholders of an online target in line with what was just fetched
+    private void updateOnlinePlayer(String uuid, PlayerTierData tierData) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            Player player = Bukkit.getPlayer(UUID.fromString(uuid));
+            if (player == null) {
+                return;
+            }
+            
+            if (tierData.isNotFound()) {
+                plugin.getTierDisplayManager().clearTier(player);
+            } else {
+                plugin.getTierDisplayManager().setTier(player, tierData);
+            }
+        });
+    }
+    
     private void displayTierInformation(CommandSender sender, PlayerTierData tierData, String username, boolean fromCache) {
         String cacheIndicator = fromCache ? " §7(cached)" : "";
         
@@ -1,6 +1,13 @@
 package net.tiertagger.commands;
 
 import net.tiertagger.TierTaggerPlugin;
+import net.tiertagger.cache.ConnectionPool;
+import net.tiertagger.cache.MemoryCache;
+import net.tiertagger.cache.WriteBehindBuffer;
+import net.tiertagger.services.DisplayUpdateQueue;
+import net.tiertagger.services.LatencyTracker;
+import net.tiertagger.services.RequestScheduler;
+import org.apache.hc.core5.pool.PoolStats;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -25,6 +32,7 @@ public class TierTaggerCommand implements CommandExecutor {
 
         switch (subCommand) {
             case "reload" -> handleReload(sender);
+            case "stats" -> handleStats(sender);
             case "help" -> sendHelpMessage(sender);
             default -> sender.sendMessage(plugin.getLanguageManager().getMessage("commands.unknown"));
         }
@@ -49,11 +57,70 @@ public class TierTaggerCommand implements CommandExecutor {
         }
     }
     
+    private void handleStats(CommandSender sender) {
+        if (!sender.hasPermission("tiertagger.admin")) {
+            sender.sendMessage(plugin.getLanguageManager().getMessage("commands.no_permission"));
+            return;
+        }
+        
+        MemoryCache<?, ?> memoryCache = plugin.getDatabaseManager().getMemoryCache();
+        
+        sender.sendMessage("§6=== TierTagger Statistics ===");
+        sender.sendMessage("§eStorage: §f" + plugin.getDatabaseManager().getStorageBackend());
+        sender.sendMessage("§eMemory Cache: §f" + memoryCache.size() + "/" + memoryCache.getMaximumSize() +
+            " §7(hits: " + memoryCache.getHits() + ", misses: " + memoryCache.getMisses() +
+            ", evictions: " + memoryCache.getEvictions() + ", hit rate: " + formatPercent(memoryCache.getHitRate()) + ")");
+        
+        ConnectionPool connectionPool = plugin.getDatabaseManager().getConnectionPool();
+        if (connectionPool != null) {
+            sender.sendMessage("§eConnections: §f" + connectionPool.getActiveConnections() + " active, " +
+                connectionPool.getIdleConnections() + " idle, " + connectionPool.getPendingRequests() + " waiting §7(max " +
+                connectionPool.getMaximumSize() + ")");
+            sender.sendMessage("§eConnection Wait: §f" + String.format("%.2fms avg, %.2fms max",
+                connectionPool.getAverageAcquireMillis(), connectionPool.getMaxAcquireMillis()) +
+                " §7(timeouts: " + connectionPool.getAcquireTimeouts() + ", invalid: " + connectionPool.getValidationFailures() +
+                ", idle closed: " + connectionPool.getIdleEvictions() + ")");
+        }
+        
+        WriteBehindBuffer<?, ?> writeBuffer = plugin.getDatabaseManager().getWriteBuffer();
+        sender.sendMessage("§eWrite Buffer: §f" + writeBuffer.getPendingCount() + " pending §7(batches: " +
+            writeBuffer.getFlushes() + ", rows written: " + writeBuffer.getWrittenEntries() +
+            ", coalesced: " + writeBuffer.getCoalescedEntries() + ", failed: " + writeBuffer.getFailedFlushes() + ")");
+        sender.sendMessage("§eCleanup: §f" + plugin.getDatabaseManager().getReclaimedRows() + " expired rows removed §7(runs: " +
+            plugin.getDatabaseManager().getCleanupPasses() + ", time spent: " + plugin.getDatabaseManager().getCleanupMillis() + "ms)");
+        sender.sendMessage("§eAPI Requests: §f" + plugin.getApiServiceManager().getInFlightRequests() + " in flight §7(coalesced: " +
+            plugin.getApiServiceManager().getCoalescedRequests() + ")");
+        RequestScheduler requestScheduler = plugin.getApiServiceManager().getRequestScheduler();
+        sender.sendMessage("§eRequest Queue: §f" + requestScheduler.getQueuedRequests() + " queued, " +
+            requestScheduler.getActiveRequests() + " active §7(shed: " + requestScheduler.getShedRequests() + ")");
+        StringBuilder circuits = new StringBuilder();
+        plugin.getApiServiceManager().getCircuitBreakers().forEach((provider, circuitBreaker) -> {
+            LatencyTracker latency = plugin.getApiServiceManager().getLatencyTrackers().get(provider);
+            circuits.append(circuits.isEmpty() ? "" : ", ").append(provider).append(" ").append(circuitBreaker.getState())
+                .append(" §7(").append(latency.hasSamples() ? String.format("%.0fms avg, ", latency.getAverageMillis()) : "")
+                .append("rejected: ").append(circuitBreaker.getRejectedCalls()).append(")§f");
+        });
+        sender.sendMessage("§eCircuits: §f" + circuits);
+        PoolStats httpConnections = plugin.getApiServiceManager().getConnectionStats();
+        sender.sendMessage("§eHTTP Connections: §f" + httpConnections.getLeased() + " leased, " +
+            httpConnections.getAvailable() + " available, " + httpConnections.getPending() + " pending §7(max " +
+            httpConnections.getMax() + ")");
+        DisplayUpdateQueue displayQueue = plugin.getTierDisplayManager().getUpdateQueue();
+        sender.sendMessage("§eDisplay Queue: §f" + displayQueue.getQueueDepth() + " pending, " +
+            String.format("%.2fms last tick, %.2fms max", displayQueue.getLastTickMillis(), displayQueue.getMaxTickMillis()) +
+            " §7(updates: " + displayQueue.getProcessedUpdates() + ", coalesced: " + displayQueue.getCoalescedUpdates() + ")");
+    }
+    
+    private String formatPercent(double ratio) {
+        return String.format("%.1f%%", ratio * 100);
+    }
+    
     private void sendHelpMessage(CommandSender sender) {
         sender.sendMessage(plugin.getLanguageManager().getMessage("commands.help.header"));
         sender.sendMessage(plugin.getLanguageManager().getMessage("commands.help.reload"));
         sender.sendMessage(plugin.getLanguageManager().getMessage("commands.help.tier"));
         sender.sendMessage(plugin.getLanguageManager().getMessage("commands.help.display"));
         sender.sendMessage(plugin.getLanguageManager().getMessage("commands.help.tieroff"));
+        sender.sendMessage(plugin.getLanguageManager().getMessage("commands.help.stats"));
     }
 }
\ No newline at end of file
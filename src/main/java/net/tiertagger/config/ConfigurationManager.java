@@ -1,16 +1,21 @@
 package net.tiertagger.config;
 
 import net.tiertagger.TierTaggerPlugin;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.logging.Logger;
 
 public class ConfigurationManager {
     
     private final TierTaggerPlugin plugin;
-    private FileConfiguration config;
+    // Replaced as a whole on reload so readers on any thread see one consistent config
+    private volatile Snapshot snapshot;
     
     public ConfigurationManager(TierTaggerPlugin plugin) {
         this.plugin = plugin;
@@ -20,92 +25,176 @@ public class ConfigurationManager {
     public void loadConfig() {
         plugin.saveDefaultConfig();
         plugin.reloadConfig();
-        config = plugin.getConfig();
+        snapshot = new Snapshot(plugin.getConfig(), plugin.getLogger());
     }
     
     public void reloadConfig() {
         plugin.reloadConfig();
-        config = plugin.getConfig();
+        snapshot = new Snapshot(plugin.getConfig(), plugin.getLogger());
     }
     
     public ApiProvider getApiProvider() {
-        String provider = config.getString("api.provider", "MCTIERS");
-        try {
-            return ApiProvider.valueOf(provider.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            plugin.getLogger().warning("Invalid API provider: " + provider + ", using 'MCTIERS' as default");
-            return ApiProvider.MCTIERS;
-        }
+        return snapshot.apiProvider;
+    }
+    
+    public RoutingMode getRoutingMode() {
+        return snapshot.routingMode;
+    }
+    
+    public List<ApiProvider> getApiProviders() {
+        return snapshot.apiProviders;
     }
     
     public String getDefaultGamemode() {
-        return config.getString("api.default_gamemode", "vanilla");
+        return snapshot.defaultGamemode;
     }
     
     public int getApiTimeout() {
-        return config.getInt("api.timeout", 10);
+        return snapshot.apiTimeout;
     }
     
     public int getCacheDuration() {
-        return config.getInt("api.cache_duration", 30);
+        return snapshot.cacheDuration;
+    }
+    
+    public int getNegativeCacheDuration() {
+        return snapshot.negativeCacheDuration;
+    }
+    
+    public boolean isStaleWhileRevalidate() {
+        return snapshot.staleWhileRevalidate;
+    }
+    
+    public int getMaxStaleness() {
+        return snapshot.maxStaleness;
+    }
+    
+    public int getMaxConnections() {
+        return snapshot.maxConnections;
+    }
+    
+    public int getMaxConnectionsPerRoute() {
+        return snapshot.maxConnectionsPerRoute;
+    }
+    
+    public double getRequestRateLimit() {
+        return snapshot.requestRateLimit;
+    }
+    
+    public int getMaxConcurrentRequests() {
+        return snapshot.maxConcurrentRequests;
+    }
+    
+    public int getMaxQueuedRequests() {
+        return snapshot.maxQueuedRequests;
+    }
+    
+    public int getCircuitBreakerFailureRate() {
+        return snapshot.circuitBreakerFailureRate;
+    }
+    
+    public int getCircuitBreakerSlowCallThreshold() {
+        return snapshot.circuitBreakerSlowCallThreshold;
+    }
+    
+    public int getCircuitBreakerOpenDuration() {
+        return snapshot.circuitBreakerOpenDuration;
+    }
+    
+    public int getIdentityCacheDuration() {
+        return snapshot.identityCacheDuration;
     }
     
     public boolean isDisplayEnabled() {
-        return config.getBoolean("display.enabled", true);
+        return snapshot.displayEnabled;
     }
     
     public String getDisplayFormat() {
-        return config.getString("display.format", "{tier} | {player}");
+        return snapshot.displayFormat;
     }
     
     public boolean isShowInTablist() {
-        return config.getBoolean("display.show_in_tablist", true);
+        return snapshot.showInTablist;
     }
     
     public boolean isShowInChat() {
-        return config.getBoolean("display.show_in_chat", true);
+        return snapshot.showInChat;
     }
     
     public boolean isDisplayShowNametag() {
-        return config.getBoolean("display.display_show_nametag", true);
+        return snapshot.displayShowNametag;
     }
     
     public boolean isDisplayShowTablist() {
-        return config.getBoolean("display.display_show_tablist", false);
+        return snapshot.displayShowTablist;
+    }
+    
+    public int getDisplayUpdateBudget() {
+        return snapshot.displayUpdateBudget;
     }
     
     public String getLanguage() {
-        return config.getString("language", "en_us");
+        return snapshot.language;
     }
     
     public Map<String, TierColor> getTierColors() {
-        Map<String, TierColor> colors = new HashMap<>();
-        
-        if (config.getConfigurationSection("tier_colors") != null) {
-            for (String tier : config.getConfigurationSection("tier_colors").getKeys(false)) {
-                String startColor = config.getString("tier_colors." + tier + ".start", "#FFFFFF");
-                String endColor = config.getString("tier_colors." + tier + ".end", "#FFFFFF");
-                colors.put(tier.toLowerCase(), new TierColor(startColor, endColor));
-            }
-        }
-        
-        return colors;
+        return snapshot.tierColors;
+    }
+    
+    public StorageBackend getStorageBackend() {
+        return snapshot.storageBackend;
     }
     
     public String getDatabaseFile() {
-        return config.getString("database.file", "plugins/TierTagger/database.db");
+        return snapshot.databaseFile;
     }
     
     public int getDatabasePoolSize() {
-        return config.getInt("database.pool_size", 10);
+        return snapshot.databasePoolSize;
+    }
+    
+    public int getDatabaseConnectionTimeout() {
+        return snapshot.databaseConnectionTimeout;
+    }
+    
+    public int getDatabaseIdleTimeout() {
+        return snapshot.databaseIdleTimeout;
+    }
+    
+    public int getDatabaseWriteBatchSize() {
+        return snapshot.databaseWriteBatchSize;
+    }
+    
+    public int getDatabaseWriteFlushInterval() {
+        return snapshot.databaseWriteFlushInterval;
+    }
+    
+    public int getCleanupInterval() {
+        return snapshot.cleanupInterval;
+    }
+    
+    public int getCleanupBatchSize() {
+        return snapshot.cleanupBatchSize;
+    }
+    
+    public int getCleanupTimeBudget() {
+        return snapshot.cleanupTimeBudget;
+    }
+    
+    public int getWarmupSize() {
+        return snapshot.warmupSize;
+    }
+    
+    public int getMemoryCacheSize() {
+        return snapshot.memoryCacheSize;
     }
     
     public boolean isDebugEnabled() {
-        return config.getBoolean("debug.enabled", false);
+        return snapshot.debugEnabled;
     }
     
     public boolean isLogApiRequests() {
-        return config.getBoolean("debug.log_api_requests", false);
+        return snapshot.logApiRequests;
     }
     
     public enum ApiProvider {
@@ -114,13 +203,29 @@ public class ConfigurationManager {
         PVPTIERS
     }
     
+    public enum RoutingMode {
+        SINGLE,
+        FAN_OUT,
+        FASTEST
+    }
+    
+    public enum StorageBackend {
+        H2,
+        MEMORY,
+        MAPPED_FILE
+    }
+    
     public static class TierColor {
         private final String startColor;
         private final String endColor;
+        private final Color startColorAsColor;
+        private final Color endColorAsColor;
         
         public TierColor(String startColor, String endColor) {
             this.startColor = startColor;
             this.endColor = endColor;
+            this.startColorAsColor = Color.decode(startColor);
+            this.endColorAsColor = Color.decode(endColor);
         }
         
         public String getStartColor() {
@@ -132,11 +237,168 @@ public class ConfigurationManager {
         }
         
         public Color getStartColorAsColor() {
-            return Color.decode(startColor);
+            return startColorAsColor;
         }
         
         public Color getEndColorAsColor() {
-            return Color.decode(endColor);
+            return endColorAsColor;
+        }
+    }
+    
+    private static final class Snapshot {
+        private final ApiProvider apiProvider;
+        private final RoutingMode routingMode;
+        private final List<ApiProvider> apiProviders;
+        private final Map<String, TierColor> tierColors;
+        private final StorageBackend storageBackend;
+        private final String defaultGamemode;
+        private final int apiTimeout;
+        private final int cacheDuration;
+        private final int negativeCacheDuration;
+        private final boolean staleWhileRevalidate;
+        private final int maxStaleness;
+        private final int maxConnections;
+        private final int maxConnectionsPerRoute;
+        private final double requestRateLimit;
+        private final int maxConcurrentRequests;
+        private final int maxQueuedRequests;
+        private final int circuitBreakerFailureRate;
+        private final int circuitBreakerSlowCallThreshold;
+        private final int circuitBreakerOpenDuration;
+        private final int identityCacheDuration;
+        private final boolean displayEnabled;
+        private final String displayFormat;
+        private final boolean showInTablist;
+        private final boolean showInChat;
+        private final boolean displayShowNametag;
+        private final boolean displayShowTablist;
+        private final int displayUpdateBudget;
+        private final String language;
+        private final String databaseFile;
+        private final int databasePoolSize;
+        private final int databaseConnectionTimeout;
+        private final int databaseIdleTimeout;
+        private final int databaseWriteBatchSize;
+        private final int databaseWriteFlushInterval;
+        private final int cleanupInterval;
+        private final int cleanupBatchSize;
+        private final int cleanupTimeBudget;
+        private final int warmupSize;
+        private final int memoryCacheSize;
+        private final boolean debugEnabled;
+        private final boolean logApiRequests;
+        
+        private Snapshot(FileConfiguration config, Logger logger) {
+            this.apiProvider = parseEnum(ApiProvider.class, config.getString("api.provider", "MCTIERS"), ApiProvider.MCTIERS,
+                "Invalid API provider: %s, using 'MCTIERS' as default", logger);
+            this.routingMode = parseEnum(RoutingMode.class, config.getString("api.routing", "SINGLE"), RoutingMode.SINGLE,
+                "Invalid API routing: %s, using 'SINGLE' as default", logger);
+            this.apiProviders = parseApiProviders(config, logger, apiProvider);
+            this.tierColors = parseTierColors(config, logger);
+            this.storageBackend = parseEnum(StorageBackend.class, config.getString("database.backend", "H2"), StorageBackend.H2,
+                "Invalid database backend: %s, using 'H2' as default", logger);
+            this.defaultGamemode = config.getString("api.default_gamemode", "vanilla");
+            this.apiTimeout = positiveInt(config, logger, "api.timeout", 10);
+            this.cacheDuration = config.getInt("api.cache_duration", 30);
+            this.negativeCacheDuration = config.getInt("api.negative_cache_duration", 10);
+            this.staleWhileRevalidate = config.getBoolean("api.stale_while_revalidate", false);
+            this.maxStaleness = config.getInt("api.max_staleness", 1440);
+            this.maxConnections = positiveInt(config, logger, "api.max_connections", 20);
+            this.maxConnectionsPerRoute = positiveInt(config, logger, "api.max_connections_per_route", 10);
+            this.requestRateLimit = nonNegativeDouble(config, logger, "api.rate_limit", 10);
+            this.maxConcurrentRequests = positiveInt(config, logger, "api.max_concurrent_requests", 8);
+            this.maxQueuedRequests = config.getInt("api.max_queued_requests", 200);
+            this.circuitBreakerFailureRate = config.getInt("api.circuit_breaker.failure_rate", 50);
+            this.circuitBreakerSlowCallThreshold = config.getInt("api.circuit_breaker.slow_call_threshold", 5000);
+            this.circuitBreakerOpenDuration = config.getInt("api.circuit_breaker.open_duration", 30);
+            this.identityCacheDuration = config.getInt("api.identity_cache_duration", 10080);
+            this.displayEnabled = config.getBoolean("display.enabled", true);
+            this.displayFormat = config.getString("display.format", "{tier} | {player}");
+            this.showInTablist = config.getBoolean("display.show_in_tablist", true);
+            this.showInChat = config.getBoolean("display.show_in_chat", true);
+            this.displayShowNametag = config.getBoolean("display.display_show_nametag", true);
+            this.displayShowTablist = config.getBoolean("display.display_show_tablist", false);
+            this.displayUpdateBudget = positiveInt(config, logger, "display.update_budget_ms", 2);
+            this.language = config.getString("language", "en_us");
+            this.databaseFile = config.getString("database.file", "plugins/TierTagger/database.db");
+            this.databasePoolSize = positiveInt(config, logger, "database.pool_size", 10);
+            this.databaseConnectionTimeout = config.getInt("database.connection_timeout", 5);
+            this.databaseIdleTimeout = config.getInt("database.idle_timeout", 10);
+            this.databaseWriteBatchSize = positiveInt(config, logger, "database.write_batch_size", 100);
+            this.databaseWriteFlushInterval = config.getInt("database.write_flush_interval", 1);
+            this.cleanupInterval = config.getInt("database.cleanup_interval", 10);
+            this.cleanupBatchSize = positiveInt(config, logger, "database.cleanup_batch_size", 500);
+            this.cleanupTimeBudget = config.getInt("database.cleanup_time_budget", 50);
+            this.warmupSize = config.getInt("database.warmup_size", 500);
+            this.memoryCacheSize = config.getInt("database.memory_cache_size", 1000);
+            this.debugEnabled = config.getBoolean("debug.enabled", false);
+            this.logApiRequests = config.getBoolean("debug.log_api_requests", false);
+        }
+        
+        private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E fallback, String warning, Logger logger) {
+            try {
+                return Enum.valueOf(type, value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warning(String.format(warning, value));
+                return fallback;
+            }
+        }
+        
+        private static List<ApiProvider> parseApiProviders(FileConfiguration config, Logger logger, ApiProvider apiProvider) {
+            List<ApiProvider> providers = new ArrayList<>();
+            for (String provider : config.getStringList("api.providers")) {
+                try {
+                    ApiProvider parsed = ApiProvider.valueOf(provider.toUpperCase());
+                    if (!providers.contains(parsed)) {
+                        providers.add(parsed);
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Invalid API provider in providers list: " + provider);
+                }
+            }
+            
+            if (providers.isEmpty()) {
+                providers.add(apiProvider);
+            }
+            return List.copyOf(providers);
+        }
+        
+        private static Map<String, TierColor> parseTierColors(FileConfiguration config, Logger logger) {
+            Map<String, TierColor> colors = new HashMap<>();
+            ConfigurationSection section = config.getConfigurationSection("tier_colors");
+            
+            if (section != null) {
+                for (String tier : section.getKeys(false)) {
+                    String startColor = section.getString(tier + ".start", "#FFFFFF");
+                    String endColor = section.getString(tier + ".end", "#FFFFFF");
+                    try {
+                        colors.put(tier.toLowerCase(), new TierColor(startColor, endColor));
+                    } catch (NumberFormatException e) {
+                        logger.warning("Invalid color for tier " + tier + ": " + startColor + " / " + endColor + ", using the default color");
+                    }
+                }
+            }
+            
+            return Map.copyOf(colors);
+        }
+        
+        private static int positiveInt(FileConfiguration config, Logger logger, String path, int fallback) {
+            int value = config.getInt(path, fallback);
+            if (value <= 0) {
+                logger.warning("Invalid value for " + path + ": " + value + ", using " + fallback + " as default");
+                return fallback;
+            }
+            return value;
+        }
+        
+        // Zero is allowed for settings where it means no limit
+        private static double nonNegativeDouble(FileConfiguration config, Logger logger, String path, double fallback) {
+            double value = config.getDouble(path, fallback);
+            if (value < 0 || Double.isNaN(value)) {
+                logger.warning("Invalid value for " + path + ": " + value + ", using " + fallback + " as default");
+                return fallback;
+            }
+            return value;
         }
     }
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package net.tiertagger.listeners;
 
-import net.kyori.adventure.text.Component;
 import net.tiertagger.TierTaggerPlugin;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -8,11 +7,12 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.scoreboard.Scoreboard;
-import org.bukkit.scoreboard.Team;
 
 public class PlayerDisplayListener implements Listener {
     
     private final TierTaggerPlugin plugin;
+    // Shared by every viewer with the display off, it has no teams so nametags render without prefixes
+    private Scoreboard cleanScoreboard;
     
     public PlayerDisplayListener(TierTaggerPlugin plugin) {
         this.plugin = plugin;
@@ -23,30 +23,20 @@ public class PlayerDisplayListener implements Listener {
         Player player = event.getPlayer();
         
         if (!plugin.getTierDisplayManager().isPlayerDisplayEnabled(player)) {
-            createCleanScoreboardForPlayer(player);
+            player.setScoreboard(getCleanScoreboard());
         }
     }
     
-    private void createCleanScoreboardForPlayer(Player player) {
-        Scoreboard cleanScoreboard = plugin.getServer().getScoreboardManager().getNewScoreboard();
-
-        for (Player onlinePlayer : plugin.getServer().getOnlinePlayers()) {
-            String cleanTeamName = "clean_" + onlinePlayer.getName().toLowerCase();
-            Team cleanTeam = cleanScoreboard.getTeam(cleanTeamName);
-            if (cleanTeam == null) {
-                cleanTeam = cleanScoreboard.registerNewTeam(cleanTeamName);
-            }
-            cleanTeam.prefix(Component.text(""));
-            cleanTeam.suffix(Component.text(""));
-            cleanTeam.addEntry(onlinePlayer.getName());
+    private Scoreboard getCleanScoreboard() {
+        if (cleanScoreboard == null) {
+            cleanScoreboard = plugin.getServer().getScoreboardManager().getNewScoreboard();
         }
-        
-        player.setScoreboard(cleanScoreboard);
+        return cleanScoreboard;
     }
     
     public void updatePlayerScoreboard(Player player) {
         if (!plugin.getTierDisplayManager().isPlayerDisplayEnabled(player)) {
-            createCleanScoreboardForPlayer(player);
+            player.setScoreboard(getCleanScoreboard());
         } else {
             player.setScoreboard(plugin.getServer().getScoreboardManager().getMainScoreboard());
         }
@@ -1,6 +1,8 @@
 package net.tiertagger.listeners;
 
 import net.tiertagger.TierTaggerPlugin;
+import net.tiertagger.models.PlayerTierData;
+import net.tiertagger.services.RequestScheduler;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -22,15 +24,22 @@ public class PlayerJoinListener implements Listener {
         String uuid = player.getUniqueId().toString();
         String username = player.getName();
         
+        plugin.getDatabaseManager().cacheIdentity(uuid, username);
         plugin.getDatabaseManager().getCachedTierData(uuid).thenAccept(cachedData -> {
             if (cachedData.isPresent()) {
-                plugin.getTierDisplayManager().setTier(player, cachedData.get());
+                if (!cachedData.get().isNotFound()) {
+                    plugin.getTierDisplayManager().setTier(player, cachedData.get());
+                }
                 
                 if (plugin.getConfigurationManager().isDebugEnabled()) {
-                    plugin.getLogger().info("Loaded cached tier data for " + username);
+                    plugin.getLogger().info("Loaded " + (cachedData.get().isStale() ? "stale" : "cached") + " tier data for " + username);
+                }
+                
+                if (cachedData.get().isStale()) {
+                    fetchAndCacheTierData(player, uuid, username, cachedData.get());
                 }
             } else {
-                fetchAndCacheTierData(player, uuid, username);
+                fetchAndCacheTierData(player, uuid, username, null);
             }
         });
     }
@@ -38,16 +47,19 @@ public class PlayerJoinListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
-        plugin.getTierDisplayManager().clearTier(player);
+        plugin.getTierDisplayManager().removePlayer(player);
     }
     
-    private void fetchAndCacheTierData(Player player, String uuid, String username) {
-        boolean isUuid = plugin.getConfigurationManager().getApiProvider() ==
-            net.tiertagger.config.ConfigurationManager.ApiProvider.MCTIERS;
-        String identifier = isUuid ? uuid : username;
-        
-        plugin.getApiServiceManager().fetchPlayerTierData(identifier, isUuid).thenAccept(tierData -> {
-            if (tierData != null) {
+    private void fetchAndCacheTierData(Player player, String uuid, String username, PlayerTierData previous) {
+        // The username for name based providers comes from the identity cache filled at join
+        plugin.getApiServiceManager().fetchPlayerTierData(uuid, true, RequestScheduler.Priority.JOIN, previous).thenAccept(tierData -> {
+            if (tierData != null && tierData == previous) {
+                plugin.getDatabaseManager().extendTierData(uuid, username, tierData);
+                
+                if (plugin.getConfigurationManager().isDebugEnabled()) {
+                    plugin.getLogger().info("Tier data for " + username + " is unchanged");
+                }
+            } else if (tierData != null && !tierData.isNotFound()) {
                 plugin.getDatabaseManager().cacheTierData(uuid, username, tierData);
                 plugin.getTierDisplayManager().setTier(player, tierData);
                 
@@ -55,6 +67,13 @@ public class PlayerJoinListener implements Listener {
                     plugin.getLogger().info("Fetched and cached tier data for " + username);
                 }
             } else {
+                if (tierData != null) {
+                    plugin.getDatabaseManager().cacheTierData(uuid, username, tierData);
+                    if (previous != null && !previous.isNotFound()) {
+                        plugin.getTierDisplayManager().clearTier(player);
+                    }
+                }
+                
                 if (plugin.getConfigurationManager().isDebugEnabled()) {
                     plugin.getLogger().info("No tier data found for " + username);
                 }
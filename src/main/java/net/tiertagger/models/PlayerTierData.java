@@ -1,24 +1,57 @@
 package net.tiertagger.models;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
 public class PlayerTierData {
     
-    private static final Gson gson = new Gson();
+    // java.time fields cannot be reflected into on current JVMs, without the adapter legacy rows fail to parse
+    private static final Gson gson = new GsonBuilder()
+        .registerTypeAdapter(LocalDateTime.class, new TypeAdapter<LocalDateTime>() {
+            @Override
+            public void write(JsonWriter out, LocalDateTime value) throws IOException {
+                if (value == null) {
+                    out.nullValue();
+                } else {
+                    out.value(value.toString());
+                }
+            }
+            
+            @Override
+            public LocalDateTime read(JsonReader in) throws IOException {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+                return LocalDateTime.parse(in.nextString());
+            }
+        })
+        .create();
     
     private String uuid;
     private String username;
     private Map<String, GamemodeTier> gamemodes;
     private LocalDateTime cachedAt;
+    private transient LocalDateTime expiresAt;
     private String region;
     private int points;
     private int overall;
+    private transient String etag;
+    private transient String lastModified;
+    private transient long contentHash;
+    private transient boolean notFound;
     
     public PlayerTierData() {
         this.gamemodes = new HashMap<>();
@@ -30,6 +63,13 @@ public class PlayerTierData {
         this.username = username;
     }
     
+    // Marks a player the provider has no profile for, cached so the lookup is not repeated on every join
+    public static PlayerTierData notFound() {
+        PlayerTierData data = new PlayerTierData();
+        data.notFound = true;
+        return data;
+    }
+    
     public String getBestTier() {
         if (gamemodes.isEmpty()) {
             return "UNRANKED";
@@ -79,54 +119,145 @@ public class PlayerTierData {
         };
     }
     
-    public static PlayerTierData fromMCTiersJson(String jsonString) {
-        JsonObject json = JsonParser.parseString(jsonString).getAsJsonObject();
-        
-        PlayerTierData data = new PlayerTierData();
-        data.uuid = json.get("uuid").getAsString();
-        data.username = json.get("name").getAsString();
-        data.region = json.has("region") ? json.get("region").getAsString() : "";
-        data.points = json.has("points") ? json.get("points").getAsInt() : 0;
-        data.overall = json.has("overall") ? json.get("overall").getAsInt() : 0;
-        
-        if (json.has("rankings")) {
-            JsonObject rankings = json.getAsJsonObject("rankings");
-            for (String gamemode : rankings.keySet()) {
-                JsonObject gamemodeData = rankings.getAsJsonObject(gamemode);
-                GamemodeTier tier = new GamemodeTier(
-                    gamemodeData.get("tier").getAsInt(),
-                    gamemodeData.get("pos").getAsInt(),
-                    gamemodeData.get("peak_tier").getAsInt(),
-                    gamemodeData.get("peak_pos").getAsInt(),
-                    gamemodeData.get("attained").getAsLong(),
-                    gamemodeData.get("retired").getAsBoolean()
-                );
-                data.gamemodes.put(gamemode, tier);
+    public static PlayerTierData fromMCTiersJson(byte[] body) throws IOException {
+        try (JsonReader reader = createReader(body)) {
+            PlayerTierData data = new PlayerTierData();
+            data.region = "";
+            
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "uuid" -> data.uuid = nextString(reader, null);
+                    case "name" -> data.username = nextString(reader, null);
+                    case "region" -> data.region = nextString(reader, "");
+                    case "points" -> data.points = nextInt(reader);
+                    case "overall" -> data.overall = nextInt(reader);
+                    case "rankings" -> readMCTiersRankings(reader, data.gamemodes);
+                    default -> reader.skipValue();
+                }
             }
+            reader.endObject();
+            
+            return data;
         }
-        
-        return data;
     }
     
-    public static PlayerTierData fromSouthTiersJson(String jsonString) {
-        JsonObject json = JsonParser.parseString(jsonString).getAsJsonObject();
-        
-        PlayerTierData data = new PlayerTierData();
+    private static void readMCTiersRankings(JsonReader reader, Map<String, GamemodeTier> gamemodes) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return;
+        }
         
-        if (json.get("success").getAsBoolean()) {
-            JsonObject dataObj = json.getAsJsonObject("data");
-            data.username = dataObj.get("jogador").getAsString();
-            String ranking = dataObj.get("ranking").getAsString();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String gamemode = reader.nextName();
+            int tier = 0;
+            int position = 0;
+            int peakTier = 0;
+            int peakPosition = 0;
+            long attained = 0;
+            boolean retired = false;
+            
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "tier" -> tier = nextInt(reader);
+                    case "pos" -> position = nextInt(reader);
+                    case "peak_tier" -> peakTier = nextInt(reader);
+                    case "peak_pos" -> peakPosition = nextInt(reader);
+                    case "attained" -> attained = nextLong(reader);
+                    case "retired" -> retired = nextBoolean(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
             
-            int tierValue = parseSouthTierRanking(ranking);
-            GamemodeTier tier = new GamemodeTier(tierValue, 0, tierValue, 0, System.currentTimeMillis() / 1000, false);
-            data.gamemodes.put("vanilla", tier);
+            gamemodes.put(gamemode, new GamemodeTier(tier, position, peakTier, peakPosition, attained, retired));
         }
-        
-        return data;
+        reader.endObject();
+    }
+    
+    public static PlayerTierData fromSouthTiersJson(byte[] body) throws IOException {
+        try (JsonReader reader = createReader(body)) {
+            PlayerTierData data = new PlayerTierData();
+            boolean success = false;
+            String username = null;
+            String ranking = null;
+            
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "success" -> success = nextBoolean(reader);
+                    case "data" -> {
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                            continue;
+                        }
+                        
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            switch (reader.nextName()) {
+                                case "jogador" -> username = nextString(reader, null);
+                                case "ranking" -> ranking = nextString(reader, "");
+                                default -> reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            
+            data.notFound = !success;
+            if (success && ranking != null) {
+                data.username = username;
+                int tierValue = parseSouthTierRanking(ranking);
+                GamemodeTier tier = new GamemodeTier(tierValue, 0, tierValue, 0, System.currentTimeMillis() / 1000, false);
+                data.gamemodes.put("vanilla", tier);
+            }
+            
+            return data;
+        }
+    }
+    
+    private static JsonReader createReader(byte[] body) {
+        return new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+    
+    private static String nextString(JsonReader reader, String fallback) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return fallback;
+        }
+        return reader.nextString();
+    }
+    
+    private static int nextInt(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return 0;
+        }
+        return reader.nextInt();
+    }
+    
+    private static long nextLong(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return 0;
+        }
+        return reader.nextLong();
     }
     
-    private static int parseSouthTierRanking(String ranking) {
+    private static boolean nextBoolean(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return false;
+        }
+        return reader.nextBoolean();
+    }
+    
+    static int parseSouthTierRanking(String ranking) {
         String lowerRanking = ranking.toLowerCase();
         if (lowerRanking.contains("high tier 1")) return 1;
         if (lowerRanking.contains("low tier 1")) return 2;
@@ -181,6 +312,18 @@ public class PlayerTierData {
         this.cachedAt = cachedAt;
     }
     
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public boolean isStale() {
+        return expiresAt != null && LocalDateTime.now().isAfter(expiresAt);
+    }
+    
     public String getRegion() {
         return region;
     }
@@ -205,6 +348,38 @@ public class PlayerTierData {
         this.overall = overall;
     }
     
+    public String getEtag() {
+        return etag;
+    }
+    
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+    
+    public String getLastModified() {
+        return lastModified;
+    }
+    
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+    
+    public long getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(long contentHash) {
+        this.contentHash = contentHash;
+    }
+    
+    public boolean isNotFound() {
+        return notFound;
+    }
+    
+    public void setNotFound(boolean notFound) {
+        this.notFound = notFound;
+    }
+    
     public static class GamemodeTier {
         private int tier;
         private int position;
@@ -0,0 +1,157 @@
+package net.tiertagger.models;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class PlayerTierDataCodec {
+    
+    private static final int FORMAT_VERSION = 3;
+    
+    // Append only, the position in this list is what gets stored
+    private static final List<String> KNOWN_GAMEMODES = List.of(
+        "vanilla", "sword", "pot", "uhc", "axe", "nethop", "mace", "smp", "crystal"
+    );
+    
+    private PlayerTierDataCodec() {
+    }
+    
+    public static byte[] encode(PlayerTierData data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(FORMAT_VERSION);
+        
+        writeString(out, data.getRegion());
+        writeSignedVarLong(out, data.getPoints());
+        writeSignedVarLong(out, data.getOverall());
+        
+        Map<String, PlayerTierData.GamemodeTier> gamemodes = data.getGamemodes();
+        writeVarLong(out, gamemodes.size());
+        
+        for (Map.Entry<String, PlayerTierData.GamemodeTier> entry : gamemodes.entrySet()) {
+            int gamemodeId = KNOWN_GAMEMODES.indexOf(entry.getKey());
+            writeVarLong(out, gamemodeId + 1);
+            if (gamemodeId < 0) {
+                writeString(out, entry.getKey());
+            }
+            
+            PlayerTierData.GamemodeTier tier = entry.getValue();
+            writeSignedVarLong(out, tier.getTier());
+            writeSignedVarLong(out, tier.getPosition());
+            writeSignedVarLong(out, tier.getPeakTier());
+            writeSignedVarLong(out, tier.getPeakPosition());
+            writeSignedVarLong(out, tier.getAttained());
+            out.write(tier.isRetired() ? 1 : 0);
+        }
+        
+        writeString(out, data.getEtag());
+        writeString(out, data.getLastModified());
+        writeVarLong(out, data.getContentHash());
+        out.write(data.isNotFound() ? 1 : 0);
+        
+        return out.toByteArray();
+    }
+    
+    public static PlayerTierData decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        
+        try {
+            int version = in.get() & 0xFF;
+            if (version < 1 || version > FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported tier data format version: " + version);
+            }
+            
+            PlayerTierData data = new PlayerTierData();
+            data.setRegion(readString(in));
+            data.setPoints((int) readSignedVarLong(in));
+            data.setOverall((int) readSignedVarLong(in));
+            
+            int gamemodeCount = (int) readVarLong(in);
+            Map<String, PlayerTierData.GamemodeTier> gamemodes = new HashMap<>(Math.max(4, gamemodeCount * 2));
+            
+            for (int i = 0; i < gamemodeCount; i++) {
+                int gamemodeId = (int) readVarLong(in) - 1;
+                String gamemode = gamemodeId >= 0 ? KNOWN_GAMEMODES.get(gamemodeId) : readString(in);
+                
+                PlayerTierData.GamemodeTier tier = new PlayerTierData.GamemodeTier(
+                    (int) readSignedVarLong(in),
+                    (int) readSignedVarLong(in),
+                    (int) readSignedVarLong(in),
+                    (int) readSignedVarLong(in),
+                    readSignedVarLong(in),
+                    in.get() != 0
+                );
+                gamemodes.put(gamemode, tier);
+            }
+            
+            data.setGamemodes(gamemodes);
+            
+            // Version 1 entries were written before response validators were kept
+            if (version >= 2) {
+                data.setEtag(readString(in));
+                data.setLastModified(readString(in));
+                data.setContentHash(readVarLong(in));
+            }
+            if (version >= 3) {
+                data.setNotFound(in.get() != 0);
+            }
+            return data;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated or corrupt tier data", e);
+        }
+    }
+    
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+    
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void writeSignedVarLong(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+    
+    private static long readSignedVarLong(ByteBuffer in) {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+    
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static long readVarLong(ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in tier data");
+    }
+}
@@ -0,0 +1,86 @@
+package net.tiertagger.placeholders;
+
+import net.tiertagger.models.PlayerTierData;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public final class PlaceholderSnapshot {
+    
+    private static final String[] GAMEMODES = {"vanilla", "sword", "pot", "uhc", "axe", "nethop", "mace", "smp", "crystal"};
+    private static final String[] TIERS = {"HT1", "LT1", "HT2", "LT2", "HT3", "LT3", "HT4", "LT4", "HT5", "LT5"};
+    
+    public static final PlaceholderSnapshot EMPTY = new PlaceholderSnapshot(createDefaultValues());
+    
+    private final Map<String, String> values;
+    
+    private PlaceholderSnapshot(Map<String, String> values) {
+        this.values = Map.copyOf(values);
+    }
+    
+    public static PlaceholderSnapshot of(PlayerTierData tierData) {
+        Map<String, String> values = new HashMap<>();
+        String bestTier = tierData.getBestTier();
+        
+        putAliases(values, bestTier, "tier", "best_tier");
+        putAliases(values, formatTierDisplay(bestTier), "tier_formatted", "best_tier_formatted");
+        putAliases(values, String.valueOf(tierData.getPoints()), "points");
+        putAliases(values, String.valueOf(tierData.getOverall()), "overall", "overall_rank");
+        putAliases(values, tierData.getRegion() != null ? tierData.getRegion() : "", "region");
+        
+        for (String gamemode : GAMEMODES) {
+            putAliases(values, tierData.getTierForGamemode(gamemode), gamemode, gamemode + "_tier");
+        }
+        
+        for (String tier : TIERS) {
+            putAliases(values, bestTier.equals(tier) ? tier : "", tier.toLowerCase(Locale.ROOT));
+        }
+        
+        return new PlaceholderSnapshot(values);
+    }
+    
+    public String get(String params) {
+        String value = values.get(params);
+        if (value == null) {
+            value = values.get(params.toLowerCase(Locale.ROOT));
+        }
+        return value != null ? value : "";
+    }
+    
+    private static Map<String, String> createDefaultValues() {
+        Map<String, String> values = new HashMap<>();
+        
+        putAliases(values, "UNRANKED", "tier", "best_tier");
+        putAliases(values, "§fUnranked", "tier_formatted", "best_tier_formatted");
+        putAliases(values, "0", "points", "overall", "overall_rank");
+        
+        for (String gamemode : GAMEMODES) {
+            putAliases(values, "UNRANKED", gamemode);
+        }
+        
+        return values;
+    }
+    
+    private static void putAliases(Map<String, String> values, String value, String... keys) {
+        for (String key : keys) {
+            values.put(key, value);
+        }
+    }
+    
+    private static String formatTierDisplay(String tier) {
+        return switch (tier.toUpperCase(Locale.ROOT)) {
+            case "HT1" -> "§c§lHigh Tier 1";
+            case "LT1" -> "§6§lLow Tier 1";
+            case "HT2" -> "§e§lHigh Tier 2";
+            case "LT2" -> "§a§lLow Tier 2";
+            case "HT3" -> "§b§lHigh Tier 3";
+            case "LT3" -> "§9§lLow Tier 3";
+            case "HT4" -> "§d§lHigh Tier 4";
+            case "LT4" -> "§5§lLow Tier 4";
+            case "HT5" -> "§7§lHigh Tier 5";
+            case "LT5" -> "§8§lLow Tier 5";
+            default -> "§fUnranked";
+        };
+    }
+}
@@ -6,46 +6,253 @@ import net.tiertagger.models.PlayerTierData;
 import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
 import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
 
 public class ApiServiceManager {
     
     private final TierTaggerPlugin plugin;
+    private final PoolingAsyncClientConnectionManager connectionManager;
     private final CloseableHttpAsyncClient httpClient;
+    private final MojangBatchResolver batchResolver;
+    private final RequestScheduler requestScheduler;
+    private final Map<ConfigurationManager.ApiProvider, CircuitBreaker> circuitBreakers;
+    private final Map<ConfigurationManager.ApiProvider, LatencyTracker> latencyTrackers;
+    private final Map<String, InFlightRequest> inFlightRequests;
+    private final AtomicLong coalescedRequests;
     
     private static final String MCTIERS_BASE_URL = "https://api.uku3lig.net/tiers/profile/";
     private static final String SOUTH_TIERS_BASE_URL = "http://too-butler.gl.at.ply.gg:1247/api/profile/";
     private static final String PVPTIERS_BASE_URL = "http://pvptiers.com/api/profile/";
+    private static final int MOJANG_TIMEOUT_SECONDS = 5;
+    private static final int IDLE_CONNECTION_TIMEOUT_SECONDS = 30;
+    private static final int CONNECTION_TIME_TO_LIVE_MINUTES = 5;
 
     public ApiServiceManager(TierTaggerPlugin plugin) {
         this.plugin = plugin;
-        this.httpClient = HttpAsyncClients.createDefault();
+        this.connectionManager = createConnectionManager();
+        this.httpClient = createHttpClient();
         this.httpClient.start();
+        this.batchResolver = new MojangBatchResolver(plugin, httpClient, MOJANG_TIMEOUT_SECONDS,
+            (uuid, username) -> plugin.getDatabaseManager().cacheIdentity(uuid, username));
+        this.requestScheduler = new RequestScheduler(plugin);
+        this.circuitBreakers = new EnumMap<>(ConfigurationManager.ApiProvider.class);
+        this.latencyTrackers = new EnumMap<>(ConfigurationManager.ApiProvider.class);
+        for (ConfigurationManager.ApiProvider provider : ConfigurationManager.ApiProvider.values()) {
+            circuitBreakers.put(provider, new CircuitBreaker(plugin, provider.name()));
+            latencyTrackers.put(provider, new LatencyTracker());
+        }
+        this.inFlightRequests = new ConcurrentHashMap<>();
+        this.coalescedRequests = new AtomicLong();
     }
     
-    public CompletableFuture<PlayerTierData> fetchPlayerTierData(String playerIdentifier, boolean isUuid) {
-        ConfigurationManager.ApiProvider provider = plugin.getConfigurationManager().getApiProvider();
-
-        return switch (provider) {
-            case MCTIERS -> fetchFromMCTiers(playerIdentifier, isUuid);
-            case SOUTH_TIERS -> fetchFromSouthTiers(playerIdentifier, isUuid);
-            case PVPTIERS -> fetchFromPvPTiers(playerIdentifier, isUuid);
-        };
+    private PoolingAsyncClientConnectionManager createConnectionManager() {
+        ConfigurationManager config = plugin.getConfigurationManager();
+        Timeout timeout = Timeout.ofSeconds(config.getApiTimeout());
+        
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(config.getMaxConnections())
+            .setMaxConnPerRoute(config.getMaxConnectionsPerRoute())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .setTimeToLive(TimeValue.ofMinutes(CONNECTION_TIME_TO_LIVE_MINUTES))
+                .build())
+            // HTTP/2 is negotiated over TLS where the provider offers it, plain http stays on HTTP/1.1
+            .setDefaultTlsConfig(TlsConfig.custom()
+                .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                .build())
+            .build();
+    }
+    
+    private CloseableHttpAsyncClient createHttpClient() {
+        Timeout timeout = Timeout.ofSeconds(plugin.getConfigurationManager().getApiTimeout());
+        
+        return HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(timeout)
+                .setResponseTimeout(timeout)
+                .build())
+            .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+            .evictIdleConnections(TimeValue.ofSeconds(IDLE_CONNECTION_TIMEOUT_SECONDS))
+            .evictExpiredConnections()
+            .build();
+    }
+    
+    public CompletableFuture<PlayerTierData> fetchPlayerTierData(String playerIdentifier, boolean isUuid, RequestScheduler.Priority priority) {
+        return fetchPlayerTierData(playerIdentifier, isUuid, priority, null);
     }
     
-    private CompletableFuture<PlayerTierData> fetchFromMCTiers(String playerIdentifier, boolean isUuid) {
+    // Revalidates against the previous response, returning that same instance when the provider reports no change
+    public CompletableFuture<PlayerTierData> fetchPlayerTierData(String playerIdentifier, boolean isUuid, RequestScheduler.Priority priority,
+                                                                 PlayerTierData previous) {
+        ConfigurationManager.RoutingMode routing = plugin.getConfigurationManager().getRoutingMode();
+        String route = routing == ConfigurationManager.RoutingMode.SINGLE ? plugin.getConfigurationManager().getApiProvider().name() : routing.name();
+        String requestKey = route + ":" + playerIdentifier.toLowerCase(Locale.ROOT);
+        
         CompletableFuture<PlayerTierData> future = new CompletableFuture<>();
+        InFlightRequest request = new InFlightRequest(future, new RequestScheduler.Ticket(priority));
+        InFlightRequest inFlight = inFlightRequests.putIfAbsent(requestKey, request);
+        if (inFlight != null) {
+            coalescedRequests.incrementAndGet();
+            // A more urgent caller moves the shared request up the queue rather than sending a second one
+            requestScheduler.raise(inFlight.ticket, priority);
+            return inFlight.future;
+        }
+        
+        routeRequest(routing, playerIdentifier, isUuid, request.ticket, previous).whenComplete((tierData, error) -> {
+            inFlightRequests.remove(requestKey, request);
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(tierData);
+            }
+        });
+        return future;
+    }
+    
+    private CompletableFuture<PlayerTierData> routeRequest(ConfigurationManager.RoutingMode routing, String playerIdentifier,
+                                                           boolean isUuid, RequestScheduler.Ticket ticket, PlayerTierData previous) {
+        CompletableFuture<PlayerTierData> result = switch (routing) {
+            case SINGLE -> fetchFromProvider(plugin.getConfigurationManager().getApiProvider(), playerIdentifier, isUuid, ticket, previous);
+            case FASTEST -> fetchFromFastest(selectProvidersByLatency(), 0, playerIdentifier, isUuid, ticket, previous);
+            case FAN_OUT -> fetchFromAllProviders(playerIdentifier, isUuid, ticket);
+        };
+        
+        // A provider whose circuit is open answers like an unavailable one
+        return result.exceptionallyCompose(error -> isRejected(error)
+            ? CompletableFuture.completedFuture(null)
+            : CompletableFuture.failedFuture(error));
+    }
+    
+    // Providers without samples yet are tried first so every healthy provider gets measured
+    private List<ConfigurationManager.ApiProvider> selectProvidersByLatency() {
+        List<ConfigurationManager.ApiProvider> candidates = new ArrayList<>();
+        for (ConfigurationManager.ApiProvider provider : plugin.getConfigurationManager().getApiProviders()) {
+            if (circuitBreakers.get(provider).isCallPermitted()) {
+                candidates.add(provider);
+            }
+        }
+        
+        candidates.sort(Comparator.comparingDouble(provider -> {
+            LatencyTracker latency = latencyTrackers.get(provider);
+            return latency.hasSamples() ? latency.getAverageMillis() : -1;
+        }));
+        return candidates;
+    }
+    
+    // The breaker can still turn a call away after selection, e.g. when another caller took the half-open probe,
+    // so the next fastest provider is tried instead of giving up
+    private CompletableFuture<PlayerTierData> fetchFromFastest(List<ConfigurationManager.ApiProvider> candidates, int index,
+                                                               String playerIdentifier, boolean isUuid, RequestScheduler.Ticket ticket,
+                                                               PlayerTierData previous) {
+        if (index >= candidates.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        return fetchFromProvider(candidates.get(index), playerIdentifier, isUuid, ticket, previous)
+            .exceptionallyCompose(error -> isRejected(error)
+                ? fetchFromFastest(candidates, index + 1, playerIdentifier, isUuid, ticket, previous)
+                : CompletableFuture.failedFuture(error));
+    }
+    
+    private static boolean isRejected(Throwable error) {
+        return (error instanceof CompletionException ? error.getCause() : error) instanceof CallRejectedException;
+    }
+    
+    private CompletableFuture<PlayerTierData> fetchFromAllProviders(String playerIdentifier, boolean isUuid, RequestScheduler.Ticket ticket) {
+        List<ConfigurationManager.ApiProvider> providers = plugin.getConfigurationManager().getApiProviders();
+        List<CompletableFuture<PlayerTierData>> results = new ArrayList<>();
+        for (ConfigurationManager.ApiProvider provider : providers) {
+            results.add(fetchFromProvider(provider, playerIdentifier, isUuid, ticket, null)
+                .exceptionally(throwable -> null));
+        }
+        
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> mergeResults(results.stream().map(CompletableFuture::join).toList()));
+    }
+    
+    // Results arrive in precedence order, so the first provider to rank a gamemode decides it
+    private PlayerTierData mergeResults(List<PlayerTierData> results) {
+        PlayerTierData merged = null;
+        boolean notFound = false;
+        
+        for (PlayerTierData result : results) {
+            if (result == null) {
+                continue;
+            }
+            if (result.isNotFound()) {
+                notFound = true;
+                continue;
+            }
+            
+            if (merged == null) {
+                merged = new PlayerTierData(result.getUuid(), result.getUsername());
+                merged.setRegion(result.getRegion());
+                merged.setPoints(result.getPoints());
+                merged.setOverall(result.getOverall());
+            }
+            result.getGamemodes().forEach(merged.getGamemodes()::putIfAbsent);
+        }
         
-        String uuid = isUuid ? playerIdentifier : getUuidFromUsername(playerIdentifier);
-        if (uuid == null) {
-            future.complete(null);
-            return future;
+        if (merged == null && notFound && !results.contains(null)) {
+            return PlayerTierData.notFound();
         }
+        return merged;
+    }
+    
+    private CompletableFuture<PlayerTierData> fetchFromProvider(ConfigurationManager.ApiProvider provider, String playerIdentifier,
+                                                                boolean isUuid, RequestScheduler.Ticket ticket, PlayerTierData previous) {
+        return switch (provider) {
+            case MCTIERS -> fetchFromMCTiers(playerIdentifier, isUuid, ticket, previous);
+            case SOUTH_TIERS -> fetchFromSouthTiers(playerIdentifier, isUuid, ticket, previous);
+            case PVPTIERS -> fetchFromPvPTiers(playerIdentifier, isUuid, ticket, previous);
+        };
+    }
+    
+    private CompletableFuture<PlayerTierData> fetchFromMCTiers(String playerIdentifier, boolean isUuid, RequestScheduler.Ticket ticket,
+                                                               PlayerTierData previous) {
+        CompletableFuture<String> uuid = isUuid ? CompletableFuture.completedFuture(playerIdentifier) : getUuidFromUsername(playerIdentifier);
+        return uuid.thenCompose(resolved -> resolved != null
+            ? submitRequest(ConfigurationManager.ApiProvider.MCTIERS, ticket, generation -> requestFromMCTiers(resolved, previous, generation))
+            : CompletableFuture.completedFuture(null));
+    }
+    
+    private CompletableFuture<PlayerTierData> requestFromMCTiers(String uuid, PlayerTierData previous, long generation) {
+        CompletableFuture<PlayerTierData> future = new CompletableFuture<>();
         
         String url = MCTIERS_BASE_URL + uuid.replace("-", "");
         
@@ -53,17 +260,23 @@ public class ApiServiceManager {
             plugin.getLogger().info("Fetching tier data from MCTiers: " + url);
         }
         
-        SimpleHttpRequest request = SimpleRequestBuilder.get(url)
-                .build();
+        SimpleHttpRequest request = buildTierRequest(url, previous);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(ConfigurationManager.ApiProvider.MCTIERS);
+        long startNanos = System.nanoTime();
         
         httpClient.execute(request, new FutureCallback<>() {
             @Override
             public void completed(SimpleHttpResponse response) {
+                recordOutcome(ConfigurationManager.ApiProvider.MCTIERS, generation, response, startNanos);
                 try {
-                    if (response.getCode() == 200) {
-                        String responseBody = response.getBodyText();
-                        PlayerTierData tierData = PlayerTierData.fromMCTiersJson(responseBody);
+                    if (isUnchanged(response, previous)) {
+                        future.complete(previous);
+                    } else if (response.getCode() == 200) {
+                        PlayerTierData tierData = PlayerTierData.fromMCTiersJson(response.getBodyBytes());
+                        applyValidators(tierData, response);
                         future.complete(tierData);
+                    } else if (response.getCode() == HttpStatus.SC_NOT_FOUND) {
+                        future.complete(PlayerTierData.notFound());
                     } else {
                         if (plugin.getConfigurationManager().isDebugEnabled()) {
                             plugin.getLogger().warning("MCTiers returned status: " + response.getCode());
@@ -78,12 +291,14 @@ public class ApiServiceManager {
 
             @Override
             public void failed(Exception ex) {
+                circuitBreaker.recordFailure(generation);
                 plugin.getLogger().warning("Failed to fetch from MCTiers: " + ex.getMessage());
                 future.complete(null);
             }
 
             @Override
             public void cancelled() {
+                circuitBreaker.recordFailure(generation);
                 future.complete(null);
             }
         });
@@ -91,35 +306,44 @@ public class ApiServiceManager {
         return future;
     }
     
-    private CompletableFuture<PlayerTierData> fetchFromSouthTiers(String playerIdentifier, boolean isUuid) {
+    private CompletableFuture<PlayerTierData> fetchFromSouthTiers(String playerIdentifier, boolean isUuid, RequestScheduler.Ticket ticket,
+                                                                  PlayerTierData previous) {
+        CompletableFuture<String> username = isUuid ? getUsernameFromUuid(playerIdentifier) : CompletableFuture.completedFuture(playerIdentifier);
+        return username.thenCompose(resolved -> resolved != null
+            ? submitRequest(ConfigurationManager.ApiProvider.SOUTH_TIERS, ticket, generation -> requestFromSouthTiers(resolved, playerIdentifier, isUuid, previous, generation))
+            : CompletableFuture.completedFuture(null));
+    }
+    
+    private CompletableFuture<PlayerTierData> requestFromSouthTiers(String username, String playerIdentifier, boolean isUuid,
+                                                               PlayerTierData previous, long generation) {
         CompletableFuture<PlayerTierData> future = new CompletableFuture<>();
         
-        String username = isUuid ? getUsernameFromUuid(playerIdentifier) : playerIdentifier;
-        if (username == null) {
-            future.complete(null);
-            return future;
-        }
-        
         String url = SOUTH_TIERS_BASE_URL + username;
         
         if (plugin.getConfigurationManager().isLogApiRequests()) {
             plugin.getLogger().info("Fetching data from South Tiers: " + url);
         }
         
-        SimpleHttpRequest request = SimpleRequestBuilder.get(url)
-                .build();
+        SimpleHttpRequest request = buildTierRequest(url, previous);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(ConfigurationManager.ApiProvider.SOUTH_TIERS);
+        long startNanos = System.nanoTime();
         
         httpClient.execute(request, new FutureCallback<>() {
             @Override
             public void completed(SimpleHttpResponse response) {
+                recordOutcome(ConfigurationManager.ApiProvider.SOUTH_TIERS, generation, response, startNanos);
                 try {
-                    if (response.getCode() == 200) {
-                        String responseBody = response.getBodyText();
-                        PlayerTierData tierData = PlayerTierData.fromSouthTiersJson(responseBody);
+                    if (isUnchanged(response, previous)) {
+                        future.complete(previous);
+                    } else if (response.getCode() == 200) {
+                        PlayerTierData tierData = PlayerTierData.fromSouthTiersJson(response.getBodyBytes());
+                        applyValidators(tierData, response);
                         if (isUuid) {
                             tierData.setUuid(playerIdentifier);
                         }
                         future.complete(tierData);
+                    } else if (response.getCode() == HttpStatus.SC_NOT_FOUND) {
+                        future.complete(PlayerTierData.notFound());
                     } else {
                         if (plugin.getConfigurationManager().isDebugEnabled()) {
                             plugin.getLogger().warning("South Tiers returned status: " + response.getCode());
@@ -134,12 +358,14 @@ public class ApiServiceManager {
 
             @Override
             public void failed(Exception ex) {
+                circuitBreaker.recordFailure(generation);
                 plugin.getLogger().warning("Failed to fetch from South Tiers: " + ex.getMessage());
                 future.complete(null);
             }
 
             @Override
             public void cancelled() {
+                circuitBreaker.recordFailure(generation);
                 future.complete(null);
             }
         });
@@ -147,14 +373,17 @@ public class ApiServiceManager {
         return future;
     }
 
-    private CompletableFuture<PlayerTierData> fetchFromPvPTiers(String playerIdentifier, boolean isUuid) {
-        CompletableFuture<PlayerTierData> future = new CompletableFuture<>();
+    private CompletableFuture<PlayerTierData> fetchFromPvPTiers(String playerIdentifier, boolean isUuid, RequestScheduler.Ticket ticket,
+                                                                PlayerTierData previous) {
+        CompletableFuture<String> username = isUuid ? getUsernameFromUuid(playerIdentifier) : CompletableFuture.completedFuture(playerIdentifier);
+        return username.thenCompose(resolved -> resolved != null
+            ? submitRequest(ConfigurationManager.ApiProvider.PVPTIERS, ticket, generation -> requestFromPvPTiers(resolved, playerIdentifier, isUuid, previous, generation))
+            : CompletableFuture.completedFuture(null));
+    }
 
-        String username = isUuid ? getUsernameFromUuid(playerIdentifier) : playerIdentifier;
-        if (username == null) {
-            future.complete(null);
-            return future;
-        }
+    private CompletableFuture<PlayerTierData> requestFromPvPTiers(String username, String playerIdentifier, boolean isUuid,
+                                                             PlayerTierData previous, long generation) {
+        CompletableFuture<PlayerTierData> future = new CompletableFuture<>();
 
         String url = PVPTIERS_BASE_URL + username;
 
@@ -162,20 +391,26 @@ public class ApiServiceManager {
             plugin.getLogger().info("Fetching data from South Tiers: " + url);
         }
 
-        SimpleHttpRequest request = SimpleRequestBuilder.get(url)
-                .build();
+        SimpleHttpRequest request = buildTierRequest(url, previous);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(ConfigurationManager.ApiProvider.PVPTIERS);
+        long startNanos = System.nanoTime();
 
         httpClient.execute(request, new FutureCallback<>() {
             @Override
             public void completed(SimpleHttpResponse response) {
+                recordOutcome(ConfigurationManager.ApiProvider.PVPTIERS, generation, response, startNanos);
                 try {
-                    if (response.getCode() == 200) {
-                        String responseBody = response.getBodyText();
-                        PlayerTierData tierData = PlayerTierData.fromSouthTiersJson(responseBody);
+                    if (isUnchanged(response, previous)) {
+                        future.complete(previous);
+                    } else if (response.getCode() == 200) {
+                        PlayerTierData tierData = PlayerTierData.fromSouthTiersJson(response.getBodyBytes());
+                        applyValidators(tierData, response);
                         if (isUuid) {
                             tierData.setUuid(playerIdentifier);
                         }
                         future.complete(tierData);
+                    } else if (response.getCode() == HttpStatus.SC_NOT_FOUND) {
+                        future.complete(PlayerTierData.notFound());
                     } else {
                         if (plugin.getConfigurationManager().isDebugEnabled()) {
                             plugin.getLogger().warning("PvPTiers returned status: " + response.getCode());
@@ -190,12 +425,14 @@ public class ApiServiceManager {
 
             @Override
             public void failed(Exception ex) {
+                circuitBreaker.recordFailure(generation);
                 plugin.getLogger().warning("Failed to fetch from PvPTiers: " + ex.getMessage());
                 future.complete(null);
             }
 
             @Override
             public void cancelled() {
+                circuitBreaker.recordFailure(generation);
                 future.complete(null);
             }
         });
@@ -203,57 +440,116 @@ public class ApiServiceManager {
         return future;
     }
     
-    private String getUuidFromUsername(String username) {
-        CompletableFuture<String> future = new CompletableFuture<>();
-        
-        String url = "https://api.mojang.com/users/profiles/minecraft/" + username;
-        SimpleHttpRequest request = SimpleRequestBuilder.get(url)
-                .build();
+    private CompletableFuture<PlayerTierData> submitRequest(ConfigurationManager.ApiProvider provider, RequestScheduler.Ticket ticket,
+                                                            LongFunction<CompletableFuture<PlayerTierData>> request) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(provider);
+        long generation = circuitBreaker.tryAcquire();
+        if (generation == CircuitBreaker.REJECTED) {
+            return CompletableFuture.failedFuture(CallRejectedException.INSTANCE);
+        }
         
-        httpClient.execute(request, new FutureCallback<>() {
-            @Override
-            public void completed(SimpleHttpResponse response) {
-                try {
-                    if (response.getCode() == 200) {
-                        String responseBody = response.getBodyText();
-                        com.google.gson.JsonObject json = com.google.gson.JsonParser.parseString(responseBody).getAsJsonObject();
-                        String uuid = json.get("id").getAsString();
-                        String formattedUuid = uuid.replaceAll("(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})", "$1-$2-$3-$4-$5");
-                        future.complete(formattedUuid);
-                    } else {
-                        future.complete(null);
-                    }
-                } catch (Exception e) {
-                    future.complete(null);
-                }
-            }
-
-            @Override
-            public void failed(Exception ex) {
-                future.complete(null);
-            }
-
-            @Override
-            public void cancelled() {
-                future.complete(null);
+        AtomicBoolean sent = new AtomicBoolean();
+        return requestScheduler.submit(provider.name(), ticket, () -> {
+            sent.set(true);
+            return request.apply(generation);
+        }).whenComplete((tierData, error) -> {
+            if (!sent.get()) {
+                circuitBreaker.release(generation);
+            } else if (error != null) {
+                // The request threw before its callback was registered, so nothing else reports the outcome
+                circuitBreaker.recordFailure(generation);
             }
         });
+    }
+    
+    // Server errors and rate limiting count against the provider, a missing player does not
+    private void recordOutcome(ConfigurationManager.ApiProvider provider, long generation, SimpleHttpResponse response, long startNanos) {
+        if (response.getCode() >= 500 || response.getCode() == HttpStatus.SC_TOO_MANY_REQUESTS) {
+            circuitBreakers.get(provider).recordFailure(generation);
+        } else {
+            long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            circuitBreakers.get(provider).recordSuccess(generation, latencyMillis);
+            latencyTrackers.get(provider).record(latencyMillis);
+        }
+    }
+    
+    private SimpleHttpRequest buildTierRequest(String url, PlayerTierData previous) {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.get(url);
+        
+        if (previous != null && previous.getEtag() != null) {
+            builder.addHeader(HttpHeaders.IF_NONE_MATCH, previous.getEtag());
+        }
+        if (previous != null && previous.getLastModified() != null) {
+            builder.addHeader(HttpHeaders.IF_MODIFIED_SINCE, previous.getLastModified());
+        }
+        
+        return builder.build();
+    }
+    
+    // Providers without validators always answer 200, so the body hash decides whether anything changed
+    private boolean isUnchanged(SimpleHttpResponse response, PlayerTierData previous) {
+        if (previous == null) {
+            return false;
+        }
+        if (response.getCode() == HttpStatus.SC_NOT_MODIFIED) {
+            return true;
+        }
+        return response.getCode() == 200 && previous.getContentHash() != 0 &&
+            previous.getContentHash() == hashContent(response.getBodyBytes());
+    }
+    
+    private void applyValidators(PlayerTierData tierData, SimpleHttpResponse response) {
+        Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+        Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        
+        tierData.setEtag(etag != null ? etag.getValue() : null);
+        tierData.setLastModified(lastModified != null ? lastModified.getValue() : null);
+        tierData.setContentHash(hashContent(response.getBodyBytes()));
+    }
+    
+    private long hashContent(byte[] body) {
+        if (body == null) {
+            return 0;
+        }
         
         try {
-            return future.get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            return null;
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(body)).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            return 0;
         }
     }
     
-    private String getUsernameFromUuid(String uuid) {
+    private CompletableFuture<String> getUuidFromUsername(String username) {
+        return plugin.getDatabaseManager().getCachedUuid(username).thenCompose(cached -> {
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            return batchResolver.resolve(username);
+        });
+    }
+    
+    private CompletableFuture<String> getUsernameFromUuid(String uuid) {
+        return plugin.getDatabaseManager().getCachedUsername(uuid).thenCompose(cached -> {
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            return requestUsernameFromMojang(uuid).thenApply(username -> {
+                if (username != null) {
+                    plugin.getDatabaseManager().cacheIdentity(uuid, username);
+                }
+                return username;
+            });
+        });
+    }
+    
+    private CompletableFuture<String> requestUsernameFromMojang(String uuid) {
         CompletableFuture<String> future = new CompletableFuture<>();
         
         String url = "https://sessionserver.mojang.com/session/minecraft/profile/" + uuid.replace("-", "");
         SimpleHttpRequest request = SimpleRequestBuilder.get(url)
                 .build();
         
-        httpClient.execute(request, new FutureCallback<>() {
+        Future<SimpleHttpResponse> call = httpClient.execute(request, new FutureCallback<>() {
             @Override
             public void completed(SimpleHttpResponse response) {
                 try {
@@ -281,18 +577,65 @@ public class ApiServiceManager {
             }
         });
         
-        try {
-            return future.get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            return null;
-        }
+        return withTimeout(future, call);
+    }
+    
+    private <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, Future<?> call) {
+        future.completeOnTimeout(null, MOJANG_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .whenComplete((result, error) -> call.cancel(true));
+        return future;
+    }
+    
+    public int getInFlightRequests() {
+        return inFlightRequests.size();
+    }
+    
+    public long getCoalescedRequests() {
+        return coalescedRequests.get();
+    }
+    
+    public PoolStats getConnectionStats() {
+        return connectionManager.getTotalStats();
+    }
+    
+    public Map<ConfigurationManager.ApiProvider, CircuitBreaker> getCircuitBreakers() {
+        return circuitBreakers;
+    }
+    
+    public Map<ConfigurationManager.ApiProvider, LatencyTracker> getLatencyTrackers() {
+        return latencyTrackers;
+    }
+    
+    public RequestScheduler getRequestScheduler() {
+        return requestScheduler;
     }
     
     public void shutdown() {
+        batchResolver.shutdown();
+        requestScheduler.shutdown();
         try {
             httpClient.close();
         } catch (Exception e) {
             plugin.getLogger().warning("Error closing HTTP client: " + e.getMessage());
         }
     }
+    
+    private static class InFlightRequest {
+        private final CompletableFuture<PlayerTierData> future;
+        private final RequestScheduler.Ticket ticket;
+        
+        private InFlightRequest(CompletableFuture<PlayerTierData> future, RequestScheduler.Ticket ticket) {
+            this.future = future;
+            this.ticket = ticket;
+        }
+    }
+    
+    // Thrown for every rejected call, so it skips the stack trace
+    private static class CallRejectedException extends RuntimeException {
+        private static final CallRejectedException INSTANCE = new CallRejectedException();
+        
+        private CallRejectedException() {
+            super("Circuit breaker rejected the call", null, false, false);
+        }
+    }
 }
\ No newline at end of file
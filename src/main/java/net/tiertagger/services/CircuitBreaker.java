@@ -0,0 +1,169 @@
+package net.tiertagger.services;
+
+import net.tiertagger.TierTaggerPlugin;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CircuitBreaker {
+    
+    private static final int WINDOW_SIZE = 20;
+    private static final int MINIMUM_CALLS = 10;
+    public static final long REJECTED = -1;
+    
+    private final TierTaggerPlugin plugin;
+    private final String name;
+    private final boolean[] outcomes;
+    private final AtomicLong rejectedCalls;
+    private int outcomeIndex;
+    private int recordedCalls;
+    private int failedCalls;
+    private State state;
+    private long openUntilNanos;
+    private boolean probeInFlight;
+    // Bumped on every state change so outcomes of calls admitted under an earlier state are ignored
+    private long generation;
+    
+    public CircuitBreaker(TierTaggerPlugin plugin, String name) {
+        this.plugin = plugin;
+        this.name = name;
+        this.outcomes = new boolean[WINDOW_SIZE];
+        this.rejectedCalls = new AtomicLong();
+        this.state = State.CLOSED;
+    }
+    
+    // Returns the generation the call was admitted under, to be passed back with its outcome, or REJECTED
+    public synchronized long tryAcquire() {
+        switch (state) {
+            case CLOSED -> {
+                return generation;
+            }
+            case OPEN -> {
+                if (System.nanoTime() - openUntilNanos < 0) {
+                    break;
+                }
+                transitionTo(State.HALF_OPEN);
+                probeInFlight = true;
+                return generation;
+            }
+            case HALF_OPEN -> {
+                if (!probeInFlight) {
+                    probeInFlight = true;
+                    return generation;
+                }
+            }
+        }
+        
+        rejectedCalls.incrementAndGet();
+        return REJECTED;
+    }
+    
+    // Same answer tryAcquire would give right now, without taking the permit or moving out of OPEN
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.nanoTime() - openUntilNanos >= 0;
+            case HALF_OPEN -> !probeInFlight;
+        };
+    }
+    
+    // Gives back a permit whose request was never sent, e.g. because it was shed while queued
+    public synchronized void release(long acquiredGeneration) {
+        if (acquiredGeneration == generation && state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+    
+    public synchronized void recordSuccess(long acquiredGeneration, long latencyMillis) {
+        if (acquiredGeneration != generation) {
+            return;
+        }
+        if (latencyMillis >= plugin.getConfigurationManager().getCircuitBreakerSlowCallThreshold()) {
+            recordFailure(acquiredGeneration);
+            return;
+        }
+        
+        if (state == State.HALF_OPEN) {
+            resetWindow();
+            transitionTo(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+    
+    public synchronized void recordFailure(long acquiredGeneration) {
+        if (acquiredGeneration != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        
+        record(true);
+        if (state == State.CLOSED && recordedCalls >= MINIMUM_CALLS &&
+            failedCalls * 100 >= recordedCalls * plugin.getConfigurationManager().getCircuitBreakerFailureRate()) {
+            open();
+        }
+    }
+    
+    private void record(boolean failed) {
+        if (recordedCalls == WINDOW_SIZE && outcomes[outcomeIndex]) {
+            failedCalls--;
+        }
+        
+        outcomes[outcomeIndex] = failed;
+        outcomeIndex = (outcomeIndex + 1) % WINDOW_SIZE;
+        recordedCalls = Math.min(WINDOW_SIZE, recordedCalls + 1);
+        if (failed) {
+            failedCalls++;
+        }
+    }
+    
+    private void open() {
+        openUntilNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(plugin.getConfigurationManager().getCircuitBreakerOpenDuration());
+        resetWindow();
+        transitionTo(State.OPEN);
+    }
+    
+    private void resetWindow() {
+        outcomeIndex = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+        probeInFlight = false;
+    }
+    
+    private void transitionTo(State newState) {
+        if (state == newState) {
+            return;
+        }
+        
+        State previousState = state;
+        state = newState;
+        generation++;
+        
+        // Failed probes keep cycling between open and half-open, only the outage and the recovery are logged
+        if (newState == State.OPEN && previousState == State.CLOSED) {
+            plugin.getLogger().warning(name + " is failing, pausing requests and retrying every " +
+                plugin.getConfigurationManager().getCircuitBreakerOpenDuration() + "s");
+        } else if (newState == State.CLOSED) {
+            plugin.getLogger().info(name + " recovered, resuming requests");
+        } else if (plugin.getConfigurationManager().isDebugEnabled()) {
+            plugin.getLogger().info(name + " circuit is now " + newState);
+        }
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+    
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,117 @@
+package net.tiertagger.services;
+
+import net.tiertagger.TierTaggerPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class DisplayUpdateQueue {
+    
+    private final TierTaggerPlugin plugin;
+    private final Consumer<UUID> updater;
+    private final Queue<UUID> queue;
+    // Players with an update waiting, a second submit for the same player is folded into the first
+    private final Set<UUID> pending;
+    private final AtomicLong coalescedUpdates;
+    private BukkitTask task;
+    private volatile long lastTickNanos;
+    private volatile long maxTickNanos;
+    private volatile long processedUpdates;
+    
+    public DisplayUpdateQueue(TierTaggerPlugin plugin, Consumer<UUID> updater) {
+        this.plugin = plugin;
+        this.updater = updater;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.pending = ConcurrentHashMap.newKeySet();
+        this.coalescedUpdates = new AtomicLong();
+    }
+    
+    public void start() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+        }
+    }
+    
+    public void submit(UUID playerId) {
+        if (pending.add(playerId)) {
+            queue.add(playerId);
+        } else {
+            coalescedUpdates.incrementAndGet();
+        }
+    }
+    
+    // The id stays in the queue and is skipped when polled, removing it here would be a linear scan
+    public void discard(UUID playerId) {
+        pending.remove(playerId);
+    }
+    
+    private void drain() {
+        if (queue.isEmpty()) {
+            return;
+        }
+        
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(plugin.getConfigurationManager().getDisplayUpdateBudget());
+        long start = System.nanoTime();
+        long processed = 0;
+        
+        // At least one update runs per tick so a budget smaller than a single update never stalls the queue
+        do {
+            UUID playerId = queue.poll();
+            if (playerId == null) {
+                break;
+            }
+            if (!pending.remove(playerId)) {
+                continue;
+            }
+            
+            try {
+                updater.accept(playerId);
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Failed to update tier display for " + playerId + ": " + e.getMessage());
+            }
+            processed++;
+        } while (System.nanoTime() - start < budgetNanos);
+        
+        long elapsed = System.nanoTime() - start;
+        lastTickNanos = elapsed;
+        maxTickNanos = Math.max(maxTickNanos, elapsed);
+        processedUpdates += processed;
+    }
+    
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        queue.clear();
+        pending.clear();
+    }
+    
+    public int getQueueDepth() {
+        return pending.size();
+    }
+    
+    public double getLastTickMillis() {
+        return lastTickNanos / 1_000_000.0;
+    }
+    
+    public double getMaxTickMillis() {
+        return maxTickNanos / 1_000_000.0;
+    }
+    
+    public long getProcessedUpdates() {
+        return processedUpdates;
+    }
+    
+    public long getCoalescedUpdates() {
+        return coalescedUpdates.get();
+    }
+}
@@ -0,0 +1,27 @@
+package net.tiertagger.services;
+
+public class LatencyTracker {
+    
+    // Weight of the newest sample, higher reacts faster to a provider slowing down
+    private static final double SMOOTHING = 0.2;
+    
+    private double averageMillis;
+    private boolean sampled;
+    
+    public synchronized void record(long latencyMillis) {
+        if (!sampled) {
+            averageMillis = latencyMillis;
+            sampled = true;
+        } else {
+            averageMillis += SMOOTHING * (latencyMillis - averageMillis);
+        }
+    }
+    
+    public synchronized boolean hasSamples() {
+        return sampled;
+    }
+    
+    public synchronized double getAverageMillis() {
+        return averageMillis;
+    }
+}
@@ -0,0 +1,179 @@
+package net.tiertagger.services;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.tiertagger.TierTaggerPlugin;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+public class MojangBatchResolver {
+    
+    private static final String BULK_PROFILE_URL = "https://api.minecraftservices.com/minecraft/profile/lookup/bulk/byname";
+    // Mojang rejects bulk lookups with more names than this
+    private static final int MAX_NAMES_PER_REQUEST = 10;
+    private static final long BATCH_WINDOW_MILLIS = 50;
+    // One name Mojang considers invalid fails the whole bulk request, so those never join a batch
+    private static final Pattern VALID_USERNAME = Pattern.compile("^[A-Za-z0-9_]{1,16}$");
+    
+    private final TierTaggerPlugin plugin;
+    private final CloseableHttpAsyncClient httpClient;
+    private final BiConsumer<String, String> resolvedListener;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, CompletableFuture<String>> pending;
+    private final long timeoutSeconds;
+    private boolean flushScheduled;
+    
+    public MojangBatchResolver(TierTaggerPlugin plugin, CloseableHttpAsyncClient httpClient, long timeoutSeconds,
+                               BiConsumer<String, String> resolvedListener) {
+        this.plugin = plugin;
+        this.httpClient = httpClient;
+        this.timeoutSeconds = timeoutSeconds;
+        this.resolvedListener = resolvedListener;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.pending = new HashMap<>();
+    }
+    
+    public CompletableFuture<String> resolve(String username) {
+        if (username == null || !VALID_USERNAME.matcher(username).matches()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        String key = username.toLowerCase(Locale.ROOT);
+        CompletableFuture<String> future;
+        boolean flushNow = false;
+        
+        synchronized (this) {
+            future = pending.get(key);
+            if (future != null) {
+                return future;
+            }
+            
+            future = new CompletableFuture<>();
+            future.completeOnTimeout(null, timeoutSeconds, TimeUnit.SECONDS);
+            pending.put(key, future);
+            
+            if (pending.size() >= MAX_NAMES_PER_REQUEST) {
+                flushNow = true;
+            } else if (!flushScheduled) {
+                flushScheduled = schedule(BATCH_WINDOW_MILLIS);
+            }
+        }
+        
+        if (flushNow) {
+            flush();
+        }
+        return future;
+    }
+    
+    private boolean schedule(long delayMillis) {
+        try {
+            scheduler.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+    
+    private void flush() {
+        Map<String, CompletableFuture<String>> batch;
+        synchronized (this) {
+            batch = new HashMap<>(pending);
+            pending.clear();
+            flushScheduled = false;
+        }
+        
+        List<String> names = new ArrayList<>(batch.keySet());
+        for (int from = 0; from < names.size(); from += MAX_NAMES_PER_REQUEST) {
+            Map<String, CompletableFuture<String>> chunk = new HashMap<>();
+            for (String name : names.subList(from, Math.min(names.size(), from + MAX_NAMES_PER_REQUEST))) {
+                chunk.put(name, batch.get(name));
+            }
+            sendBatch(chunk);
+        }
+    }
+    
+    private void sendBatch(Map<String, CompletableFuture<String>> batch) {
+        JsonArray body = new JsonArray();
+        batch.keySet().forEach(body::add);
+        
+        if (plugin.getConfigurationManager().isLogApiRequests()) {
+            plugin.getLogger().info("Resolving " + batch.size() + " usernames from Mojang");
+        }
+        
+        SimpleHttpRequest request = SimpleRequestBuilder.post(BULK_PROFILE_URL)
+                .setBody(body.toString(), ContentType.APPLICATION_JSON)
+                .build();
+        
+        httpClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                try {
+                    if (response.getCode() == 200) {
+                        for (JsonElement element : JsonParser.parseString(response.getBodyText()).getAsJsonArray()) {
+                            JsonObject profile = element.getAsJsonObject();
+                            String name = profile.get("name").getAsString();
+                            String uuid = formatUuid(profile.get("id").getAsString());
+                            
+                            CompletableFuture<String> future = batch.get(name.toLowerCase(Locale.ROOT));
+                            if (future != null) {
+                                resolvedListener.accept(uuid, name);
+                                future.complete(uuid);
+                            }
+                        }
+                    } else if (plugin.getConfigurationManager().isDebugEnabled()) {
+                        plugin.getLogger().warning("Mojang bulk lookup returned status: " + response.getCode());
+                    }
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Error parsing Mojang bulk lookup response: " + e.getMessage());
+                }
+                completeRemaining(batch);
+            }
+            
+            @Override
+            public void failed(Exception ex) {
+                plugin.getLogger().warning("Failed to resolve usernames from Mojang: " + ex.getMessage());
+                completeRemaining(batch);
+            }
+            
+            @Override
+            public void cancelled() {
+                completeRemaining(batch);
+            }
+        });
+    }
+    
+    private void completeRemaining(Map<String, CompletableFuture<String>> batch) {
+        batch.values().forEach(future -> future.complete(null));
+    }
+    
+    private String formatUuid(String uuid) {
+        return uuid.replaceAll("(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})", "$1-$2-$3-$4-$5");
+    }
+    
+    public void shutdown() {
+        scheduler.shutdownNow();
+        synchronized (this) {
+            completeRemaining(pending);
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package net.tiertagger.services;
+
+import net.tiertagger.TierTaggerPlugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class RequestScheduler {
+    
+    private final TierTaggerPlugin plugin;
+    private final ScheduledExecutorService timer;
+    private final Map<String, Lane> lanes;
+    private final AtomicLong shedRequests;
+    private volatile boolean shutdown;
+    
+    public RequestScheduler(TierTaggerPlugin plugin) {
+        this.plugin = plugin;
+        this.timer = Executors.newSingleThreadScheduledExecutor();
+        this.lanes = new ConcurrentHashMap<>();
+        this.shedRequests = new AtomicLong();
+    }
+    
+    public <T> CompletableFuture<T> submit(String laneName, Ticket ticket, Supplier<CompletableFuture<T>> request) {
+        Lane lane = lanes.computeIfAbsent(laneName, name -> new Lane());
+        CompletableFuture<T> future = new CompletableFuture<>();
+        
+        synchronized (lane) {
+            if (shutdown) {
+                future.complete(null);
+                return future;
+            }
+            
+            Priority priority = ticket.getPriority();
+            if (priority == Priority.BACKGROUND && lane.getQueued() >= plugin.getConfigurationManager().getMaxQueuedRequests()) {
+                shedRequests.incrementAndGet();
+                future.complete(null);
+                return future;
+            }
+            
+            QueuedRequest queued = new QueuedRequest(lane, priority, () -> {
+                try {
+                    request.get().whenComplete((result, error) -> {
+                        finish(lane);
+                        if (error != null) {
+                            future.completeExceptionally(error);
+                        } else {
+                            future.complete(result);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    finish(lane);
+                    future.completeExceptionally(e);
+                }
+            }, () -> future.complete(null));
+            lane.queues.get(priority.ordinal()).add(queued);
+            ticket.add(queued);
+        }
+        
+        drain(lane);
+        return future;
+    }
+    
+    // Moves the ticket's requests that are still queued up to the given priority, never down
+    public void raise(Ticket ticket, Priority priority) {
+        List<QueuedRequest> requests;
+        synchronized (ticket) {
+            if (priority.compareTo(ticket.priority) >= 0) {
+                return;
+            }
+            ticket.priority = priority;
+            requests = new ArrayList<>(ticket.requests);
+        }
+        
+        for (QueuedRequest queued : requests) {
+            synchronized (queued.lane) {
+                if (queued.priority.compareTo(priority) > 0 && queued.lane.queues.get(queued.priority.ordinal()).remove(queued)) {
+                    queued.priority = priority;
+                    queued.lane.queues.get(priority.ordinal()).add(queued);
+                }
+            }
+        }
+    }
+    
+    private void finish(Lane lane) {
+        synchronized (lane) {
+            lane.inFlight--;
+        }
+        drain(lane);
+    }
+    
+    private void drain(Lane lane) {
+        int maxInFlight = Math.max(1, plugin.getConfigurationManager().getMaxConcurrentRequests());
+        double ratePerSecond = plugin.getConfigurationManager().getRequestRateLimit();
+        List<QueuedRequest> ready = new ArrayList<>();
+        
+        synchronized (lane) {
+            lane.refill(ratePerSecond);
+            
+            while (lane.inFlight < maxInFlight && lane.getQueued() > 0) {
+                if (ratePerSecond > 0 && lane.tokens < 1) {
+                    scheduleDrain(lane, (long) Math.ceil((1 - lane.tokens) / ratePerSecond * 1000));
+                    break;
+                }
+                
+                if (ratePerSecond > 0) {
+                    lane.tokens--;
+                }
+                lane.inFlight++;
+                ready.add(lane.poll());
+            }
+        }
+        
+        ready.forEach(queued -> queued.start.run());
+    }
+    
+    private void scheduleDrain(Lane lane, long delayMillis) {
+        if (lane.drainScheduled) {
+            return;
+        }
+        
+        try {
+            timer.schedule(() -> {
+                synchronized (lane) {
+                    lane.drainScheduled = false;
+                }
+                drain(lane);
+            }, Math.max(1, delayMillis), TimeUnit.MILLISECONDS);
+            lane.drainScheduled = true;
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+    
+    public int getQueuedRequests() {
+        int queued = 0;
+        for (Lane lane : lanes.values()) {
+            synchronized (lane) {
+                queued += lane.getQueued();
+            }
+        }
+        return queued;
+    }
+    
+    public int getActiveRequests() {
+        int active = 0;
+        for (Lane lane : lanes.values()) {
+            synchronized (lane) {
+                active += lane.inFlight;
+            }
+        }
+        return active;
+    }
+    
+    public long getShedRequests() {
+        return shedRequests.get();
+    }
+    
+    // Queued requests complete with null, the same as shed ones, so callers release whatever they hold for them
+    public void shutdown() {
+        shutdown = true;
+        timer.shutdownNow();
+        
+        List<QueuedRequest> abandoned = new ArrayList<>();
+        for (Lane lane : lanes.values()) {
+            synchronized (lane) {
+                for (ArrayDeque<QueuedRequest> queue : lane.queues) {
+                    abandoned.addAll(queue);
+                    queue.clear();
+                }
+            }
+        }
+        
+        abandoned.forEach(queued -> queued.abandon.run());
+    }
+    
+    public enum Priority {
+        INTERACTIVE,
+        JOIN,
+        BACKGROUND
+    }
+    
+    // Shared by every request sent on behalf of one caller, so a later more urgent caller can promote them together
+    public static class Ticket {
+        private final List<QueuedRequest> requests;
+        private Priority priority;
+        
+        public Ticket(Priority priority) {
+            this.requests = new ArrayList<>();
+            this.priority = priority;
+        }
+        
+        public synchronized Priority getPriority() {
+            return priority;
+        }
+        
+        private synchronized void add(QueuedRequest queued) {
+            requests.add(queued);
+        }
+    }
+    
+    private static class QueuedRequest {
+        private final Lane lane;
+        private final Runnable start;
+        private final Runnable abandon;
+        private Priority priority;
+        
+        private QueuedRequest(Lane lane, Priority priority, Runnable start, Runnable abandon) {
+            this.lane = lane;
+            this.priority = priority;
+            this.start = start;
+            this.abandon = abandon;
+        }
+    }
+    
+    private static class Lane {
+        private final List<ArrayDeque<QueuedRequest>> queues;
+        private int inFlight;
+        private double tokens;
+        private long lastRefillNanos;
+        private boolean drainScheduled;
+        
+        private Lane() {
+            this.queues = new ArrayList<>();
+            for (int i = 0; i < Priority.values().length; i++) {
+                queues.add(new ArrayDeque<>());
+            }
+            this.tokens = -1;
+        }
+        
+        // The bucket holds one second worth of requests, but never less than the single token a request needs
+        private void refill(double ratePerSecond) {
+            long now = System.nanoTime();
+            double capacity = Math.max(1.0, ratePerSecond);
+            if (tokens < 0) {
+                tokens = capacity;
+            } else {
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * ratePerSecond);
+            }
+            lastRefillNanos = now;
+        }
+        
+        private int getQueued() {
+            int queued = 0;
+            for (ArrayDeque<QueuedRequest> queue : queues) {
+                queued += queue.size();
+            }
+            return queued;
+        }
+        
+        private QueuedRequest poll() {
+            for (ArrayDeque<QueuedRequest> queue : queues) {
+                if (!queue.isEmpty()) {
+                    return queue.poll();
+                }
+            }
+            return null;
+        }
+    }
+}
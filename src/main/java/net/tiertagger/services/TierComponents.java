@@ -0,0 +1,134 @@
+package net.tiertagger.services;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.tiertagger.config.ConfigurationManager;
+
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public final class TierComponents {
+    
+    private static final String[] TIERS = {"HT1", "LT1", "HT2", "LT2", "HT3", "LT3", "HT4", "LT4", "HT5", "LT5", "UNRANKED"};
+    private static final Component NAMETAG_SUFFIX = MiniMessage.miniMessage().deserialize("<white>");
+    
+    private final Map<String, ConfigurationManager.TierColor> tierColors;
+    private final Map<String, Entry> entries;
+    
+    private TierComponents(Map<String, ConfigurationManager.TierColor> tierColors, Map<String, Entry> entries) {
+        this.tierColors = tierColors;
+        this.entries = Map.copyOf(entries);
+    }
+    
+    public static TierComponents build(Map<String, ConfigurationManager.TierColor> tierColors) {
+        Map<String, ConfigurationManager.TierColor> colors = Map.copyOf(tierColors);
+        Map<String, Entry> entries = new HashMap<>();
+        
+        for (String tier : TIERS) {
+            entries.put(tier, render(tier, colors));
+        }
+        
+        return new TierComponents(colors, entries);
+    }
+    
+    public Entry get(String tier) {
+        Entry entry = entries.get(tier.toUpperCase(Locale.ROOT));
+        // Tiers outside the known set are rare enough to render on demand
+        return entry != null ? entry : render(tier, tierColors);
+    }
+    
+    static Entry render(String tier, Map<String, ConfigurationManager.TierColor> tierColors) {
+        String coloredTier = applyTierColor(tier, tierColors);
+        MiniMessage miniMessage = MiniMessage.miniMessage();
+        
+        return new Entry(
+            miniMessage.deserialize(coloredTier + " <gray>| <white>"),
+            miniMessage.deserialize(coloredTier + " <dark_gray>| ")
+        );
+    }
+    
+    private static String applyTierColor(String tier, Map<String, ConfigurationManager.TierColor> tierColors) {
+        ConfigurationManager.TierColor tierColor = tierColors.get(tier.toLowerCase());
+        
+        if (tierColor != null) {
+            return createGradientText(tier, tierColor.getStartColorAsColor(), tierColor.getEndColorAsColor());
+        }
+        
+        return getDefaultTierColor(tier) + tier;
+    }
+    
+    private static String createGradientText(String text, Color startColor, Color endColor) {
+        if (text.length() <= 1) {
+            return colorToMinecraftColor(startColor) + text;
+        }
+        
+        StringBuilder gradientText = new StringBuilder();
+        int length = text.length();
+        
+        for (int i = 0; i < length; i++) {
+            float ratio = (float) i / (length - 1);
+            Color interpolatedColor = interpolateColor(startColor, endColor, ratio);
+            gradientText.append(colorToMinecraftColor(interpolatedColor)).append(text.charAt(i));
+        }
+        
+        return gradientText.toString();
+    }
+    
+    private static String colorToMinecraftColor(Color color) {
+        return String.format("§x§%x§%x§%x§%x§%x§%x",
+            (color.getRed() >> 4) & 0xF, color.getRed() & 0xF,
+            (color.getGreen() >> 4) & 0xF, color.getGreen() & 0xF,
+            (color.getBlue() >> 4) & 0xF, color.getBlue() & 0xF);
+    }
+    
+    private static Color interpolateColor(Color start, Color end, float ratio) {
+        int red = (int) (start.getRed() + ratio * (end.getRed() - start.getRed()));
+        int green = (int) (start.getGreen() + ratio * (end.getGreen() - start.getGreen()));
+        int blue = (int) (start.getBlue() + ratio * (end.getBlue() - start.getBlue()));
+        
+        return new Color(Math.max(0, Math.min(255, red)),
+                        Math.max(0, Math.min(255, green)),
+                        Math.max(0, Math.min(255, blue)));
+    }
+    
+    private static String getDefaultTierColor(String tier) {
+        return switch (tier.toUpperCase()) {
+            case "HT1" -> "<red>";
+            case "LT1" -> "<gold>";
+            case "HT2" -> "<yellow>";
+            case "LT2" -> "<green>";
+            case "HT3" -> "<aqua>";
+            case "LT3" -> "<dark_aqua>";
+            case "HT4" -> "<light_purple>";
+            case "LT4" -> "<dark_purple>";
+            case "HT5" -> "<gray>";
+            case "LT5" -> "<dark_gray>";
+            default -> "<white>";
+        };
+    }
+    
+    public static class Entry {
+        private final Component displayPrefix;
+        private final Component nametagPrefix;
+        
+        public Entry(Component displayPrefix, Component nametagPrefix) {
+            this.displayPrefix = displayPrefix;
+            this.nametagPrefix = nametagPrefix;
+        }
+        
+        public Component displayName(String playerName) {
+            return displayPrefix.append(Component.text(playerName, NamedTextColor.WHITE));
+        }
+        
+        public Component getNametagPrefix() {
+            return nametagPrefix;
+        }
+        
+        public Component getNametagSuffix() {
+            return NAMETAG_SUFFIX;
+        }
+    }
+}
@@ -1,15 +1,12 @@
 package net.tiertagger.services;
 
-import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.Component;
 import net.tiertagger.TierTaggerPlugin;
-import net.tiertagger.config.ConfigurationManager;
 import net.tiertagger.models.PlayerTierData;
+import net.tiertagger.placeholders.PlaceholderSnapshot;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.scoreboard.Scoreboard;
-import org.bukkit.scoreboard.Team;
 
-import java.awt.*;
 import java.io.*;
 import java.util.Map;
 import java.util.Set;
@@ -20,21 +17,53 @@ public class TierDisplayManager {
     
     private final TierTaggerPlugin plugin;
     private final Map<UUID, String> playerTiers;
+    private final Map<UUID, PlaceholderSnapshot> placeholderSnapshots;
     private final Set<UUID> displayDisabledPlayers;
     private final Set<UUID> tierHiddenPlayers;
-    private boolean globalDisplayEnabled;
+    private final TierTeamPool teamPool;
+    private final DisplayUpdateQueue updateQueue;
+    private volatile boolean globalDisplayEnabled;
+    private volatile TierComponents tierComponents;
     
     public TierDisplayManager(TierTaggerPlugin plugin) {
         this.plugin = plugin;
         this.playerTiers = new ConcurrentHashMap<>();
+        this.placeholderSnapshots = new ConcurrentHashMap<>();
         this.displayDisabledPlayers = ConcurrentHashMap.newKeySet();
         this.tierHiddenPlayers = ConcurrentHashMap.newKeySet();
+        this.updateQueue = new DisplayUpdateQueue(plugin, this::applyDisplay);
         this.globalDisplayEnabled = true;
+        this.tierComponents = TierComponents.build(plugin.getConfigurationManager().getTierColors());
+        this.teamPool = new TierTeamPool(Bukkit.getScoreboardManager().getMainScoreboard(), tierComponents);
         loadHiddenUsers();
         loadHiddenTiers();
+        removeStaleTeams();
+        updateQueue.start();
+    }
+    
+    public void reloadTierComponents() {
+        tierComponents = TierComponents.build(plugin.getConfigurationManager().getTierColors());
+        teamPool.restyle(tierComponents);
+    }
+    
+    private void removeStaleTeams() {
+        int removed = teamPool.removeStaleTeams();
+        if (removed > 0) {
+            plugin.getLogger().info("Removed " + removed + " stale tier teams from the main scoreboard");
+        }
+    }
+    
+    private void joinTierTeam(Player player, String tier) {
+        teamPool.join(player.getUniqueId(), player.getName(), tier);
+    }
+    
+    private void leaveTierTeam(Player player) {
+        teamPool.leave(player.getUniqueId(), player.getName());
     }
     
     public void setTier(Player player, PlayerTierData tierData) {
+        placeholderSnapshots.put(player.getUniqueId(), PlaceholderSnapshot.of(tierData));
+        
         if (!plugin.getConfigurationManager().isDisplayEnabled() || !globalDisplayEnabled) {
             return;
         }
@@ -45,21 +74,38 @@ public class TierDisplayManager {
         }
         
         playerTiers.put(player.getUniqueId(), tier);
-        
-
-        if (!tierHiddenPlayers.contains(player.getUniqueId())) {
-            showTierName(player, tier);
-            
-            if (plugin.getConfigurationManager().isDisplayShowTablist()) {
-                showTabList(player, tier);
-            }
-        }
+        updateQueue.submit(player.getUniqueId());
     }
     
     public void clearTier(Player player) {
         playerTiers.remove(player.getUniqueId());
+        placeholderSnapshots.remove(player.getUniqueId());
+        updateQueue.submit(player.getUniqueId());
+    }
+    
+    // Runs straight away on quit, the entry needs the name while the player is still known
+    public void removePlayer(Player player) {
+        playerTiers.remove(player.getUniqueId());
+        placeholderSnapshots.remove(player.getUniqueId());
+        updateQueue.discard(player.getUniqueId());
         hideTierName(player);
-        hideTabList(player);
+    }
+    
+    // Queued updates only carry the player, the display is rebuilt from the current state when drained
+    private void applyDisplay(UUID playerId) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player == null) {
+            return;
+        }
+        
+        String tier = playerTiers.get(playerId);
+        if (tier == null || !globalDisplayEnabled || tierHiddenPlayers.contains(playerId)) {
+            hideTierName(player);
+            return;
+        }
+        
+        showTierName(player, tier);
+        showTabList(player, tier);
     }
     
     public void toggleDisplay(Player player) {
@@ -115,36 +161,22 @@ public class TierDisplayManager {
     
     public void switchGlobalMode() {
         globalDisplayEnabled = !globalDisplayEnabled;
-        
-        if (globalDisplayEnabled) {
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                String tier = playerTiers.get(player.getUniqueId());
-                if (tier != null && !displayDisabledPlayers.contains(player.getUniqueId())) {
-                    showTierName(player, tier);
-                    showTabList(player, tier);
-                }
-            }
-        } else {
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                hideTierName(player);
-            }
-        }
+        updateAll();
     }
     
     private void showTierName(Player player, String tier) {
         if (tierHiddenPlayers.contains(player.getUniqueId())) {
-            player.displayName(MiniMessage.miniMessage().deserialize(player.getName()));
-            player.playerListName(MiniMessage.miniMessage().deserialize(player.getName()));
+            player.displayName(Component.text(player.getName()));
+            player.playerListName(Component.text(player.getName()));
             return;
         }
         
-        String coloredTier = applyTierColor(tier);
-        String displayName = coloredTier + " <gray>| <white>" + player.getName();
+        Component displayName = tierComponents.get(tier).displayName(player.getName());
         
-        player.displayName(MiniMessage.miniMessage().deserialize(displayName));
+        player.displayName(displayName);
         
         if (plugin.getConfigurationManager().isShowInChat()) {
-            player.playerListName(MiniMessage.miniMessage().deserialize(displayName));
+            player.playerListName(displayName);
         }
 
         if (plugin.getConfigurationManager().isDisplayShowNametag()) {
@@ -158,19 +190,7 @@ public class TierDisplayManager {
             return;
         }
         
-        Scoreboard mainScoreboard = Bukkit.getScoreboardManager().getMainScoreboard();
-        String teamName = "tier_" + tier.toLowerCase() + "_" + player.getName().toLowerCase();
-        
-        Team team = mainScoreboard.getTeam(teamName);
-        if (team == null) {
-            team = mainScoreboard.registerNewTeam(teamName);
-        }
-        
-        String coloredTier = applyTierColor(tier);
-        team.prefix(MiniMessage.miniMessage().deserialize(coloredTier + " <dark_gray>| "));
-        team.suffix(MiniMessage.miniMessage().deserialize("<white>"));
-        
-        team.addEntry(player.getName());
+        joinTierTeam(player, tier);
     }
     
     private void showTabList(Player player, String tier) {
@@ -183,117 +203,18 @@ public class TierDisplayManager {
             return;
         }
         
-        Scoreboard mainScoreboard = Bukkit.getScoreboardManager().getMainScoreboard();
-        String teamName = "tier_" + tier.toLowerCase();
-        Team team = mainScoreboard.getTeam(teamName);
-        
-        if (team == null) {
-            team = mainScoreboard.registerNewTeam(teamName);
-            String coloredTier = applyTierColor(tier);
-            team.prefix(MiniMessage.miniMessage().deserialize(coloredTier + " §7| §f"));
-        }
-        
-        team.addEntry(player.getName());
+        joinTierTeam(player, tier);
     }
     
     private void hideTierName(Player player) {
-        player.displayName(MiniMessage.miniMessage().deserialize(player.getName()));
-        player.playerListName(MiniMessage.miniMessage().deserialize(player.getName()));
-        
-        Scoreboard scoreboard = player.getScoreboard();
-        for (Team team : scoreboard.getTeams()) {
-            if (team.getName().startsWith("tier_")) {
-                team.removeEntry(player.getName());
-            }
-        }
+        player.displayName(Component.text(player.getName()));
+        player.playerListName(Component.text(player.getName()));
 
         hideNameTag(player);
     }
     
     private void hideNameTag(Player player) {
-        Scoreboard mainScoreboard = Bukkit.getScoreboardManager().getMainScoreboard();
-        for (Team team : mainScoreboard.getTeams()) {
-            if (team.getName().startsWith("tier_") && team.hasEntry(player.getName())) {
-                team.removeEntry(player.getName());
-                if (team.getEntries().isEmpty()) {
-                    team.unregister();
-                }
-            }
-        }
-    }
-
-    private void hideTabList(Player player) {
-        Scoreboard scoreboard = player.getScoreboard();
-        for (Team team : scoreboard.getTeams()) {
-            if (team.getName().startsWith("tier_") && team.hasEntry(player.getName())) {
-                team.removeEntry(player.getName());
-                if (team.getEntries().isEmpty()) {
-                    team.unregister();
-                }
-            }
-        }
-
-        player.playerListName(MiniMessage.miniMessage().deserialize(player.getName()));
-    }
-    
-    private String applyTierColor(String tier) {
-        ConfigurationManager.TierColor tierColor = plugin.getConfigurationManager().getTierColors().get(tier.toLowerCase());
-        
-        if (tierColor != null) {
-            return createGradientText(tier, tierColor.getStartColorAsColor(), tierColor.getEndColorAsColor());
-        }
-        
-        return getDefaultTierColor(tier) + tier;
-    }
-    
-    private String createGradientText(String text, Color startColor, Color endColor) {
-        if (text.length() <= 1) {
-            return colorToMinecraftColor(startColor) + text;
-        }
-        
-        StringBuilder gradientText = new StringBuilder();
-        int length = text.length();
-        
-        for (int i = 0; i < length; i++) {
-            float ratio = (float) i / (length - 1);
-            Color interpolatedColor = interpolateColor(startColor, endColor, ratio);
-            gradientText.append(colorToMinecraftColor(interpolatedColor)).append(text.charAt(i));
-        }
-        
-        return gradientText.toString();
-    }
-    
-    private String colorToMinecraftColor(Color color) {
-        return String.format("§x§%x§%x§%x§%x§%x§%x",
-            (color.getRed() >> 4) & 0xF, color.getRed() & 0xF,
-            (color.getGreen() >> 4) & 0xF, color.getGreen() & 0xF,
-            (color.getBlue() >> 4) & 0xF, color.getBlue() & 0xF);
-    }
-    
-    private Color interpolateColor(Color start, Color end, float ratio) {
-        int red = (int) (start.getRed() + ratio * (end.getRed() - start.getRed()));
-        int green = (int) (start.getGreen() + ratio * (end.getGreen() - start.getGreen()));
-        int blue = (int) (start.getBlue() + ratio * (end.getBlue() - start.getBlue()));
-        
-        return new Color(Math.max(0, Math.min(255, red)), 
-                        Math.max(0, Math.min(255, green)), 
-                        Math.max(0, Math.min(255, blue)));
-    }
-    
-    private String getDefaultTierColor(String tier) {
-        return switch (tier.toUpperCase()) {
-            case "HT1" -> "<red>";
-            case "LT1" -> "<gold>";
-            case "HT2" -> "<yellow>";
-            case "LT2" -> "<green>";
-            case "HT3" -> "<aqua>";
-            case "LT3" -> "<dark_aqua>";
-            case "HT4" -> "<light_purple>";
-            case "LT4" -> "<dark_purple>";
-            case "HT5" -> "<gray>";
-            case "LT5" -> "<dark_gray>";
-            default -> "<white>";
-        };
+        leaveTierTeam(player);
     }
     
     public boolean isGlobalDisplayEnabled() {
@@ -308,23 +229,18 @@ public class TierDisplayManager {
         return playerTiers.get(player.getUniqueId());
     }
     
+    public PlaceholderSnapshot getPlaceholderSnapshot(Player player) {
+        return placeholderSnapshots.getOrDefault(player.getUniqueId(), PlaceholderSnapshot.EMPTY);
+    }
+    
     public void switchTierVisibility(Player player) {
         UUID playerId = player.getUniqueId();
         if (tierHiddenPlayers.contains(playerId)) {
             tierHiddenPlayers.remove(playerId);
-            String tier = playerTiers.get(playerId);
-            if (tier != null) {
-                showTierName(player, tier);
-                if (plugin.getConfigurationManager().isDisplayShowTablist()) {
-                    showTabList(player, tier);
-                }
-            }
         } else {
             tierHiddenPlayers.add(playerId);
-            hideTierName(player);
-            hideNameTag(player);
-            hideTabList(player);
         }
+        updateQueue.submit(playerId);
         
         saveHiddenTiers();
     }
@@ -371,12 +287,11 @@ public class TierDisplayManager {
     }
     
     public void clearAllTiers() {
+        playerTiers.clear();
+        placeholderSnapshots.clear();
         for (Player player : Bukkit.getOnlinePlayers()) {
-            hideTierName(player);
-            hideNameTag(player);
-            hideTabList(player);
+            updateQueue.submit(player.getUniqueId());
         }
-        playerTiers.clear();
     }
     
     public void refetchAllTiers() {
@@ -385,10 +300,15 @@ public class TierDisplayManager {
         for (Player player : Bukkit.getOnlinePlayers()) {
             plugin.getLogger().info("Refetching tier for player: " + player.getName());
             
-            plugin.getApiServiceManager().fetchPlayerTierData(player.getUniqueId().toString(), true)
+            plugin.getApiServiceManager().fetchPlayerTierData(player.getUniqueId().toString(), true, RequestScheduler.Priority.BACKGROUND)
                 .thenAccept(tierData -> {
-                    if (tierData != null) {
+                    if (tierData != null && !tierData.isNotFound()) {
                         Bukkit.getScheduler().runTask(plugin, () -> {
+                            // The player may have left while the request was queued
+                            if (!player.isOnline()) {
+                                return;
+                            }
+                            
                             setTier(player, tierData);
                             plugin.getLogger().info("Successfully refetched tier for " + player.getName() + ": " + tierData.getBestTier());
                         });
@@ -408,11 +328,17 @@ public class TierDisplayManager {
     
     public void updateAll() {
         for (Player player : Bukkit.getOnlinePlayers()) {
-            String tier = playerTiers.get(player.getUniqueId());
-            if (tier != null) {
-                showTierName(player, tier);
-                showTabList(player, tier);
+            if (playerTiers.containsKey(player.getUniqueId())) {
+                updateQueue.submit(player.getUniqueId());
             }
         }
     }
+    
+    public DisplayUpdateQueue getUpdateQueue() {
+        return updateQueue;
+    }
+    
+    public void shutdown() {
+        updateQueue.shutdown();
+    }
 }
\ No newline at end of file
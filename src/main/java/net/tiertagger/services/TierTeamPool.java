@@ -0,0 +1,91 @@
+package net.tiertagger.services;
+
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+class TierTeamPool {
+    
+    static final String TEAM_PREFIX = "tiertagger_";
+    
+    private final Scoreboard scoreboard;
+    // One shared team per tier, with the team each player is on so moves never scan the scoreboard
+    private final Map<String, Team> tierTeams;
+    private final Map<UUID, Team> playerTeams;
+    private volatile TierComponents tierComponents;
+    
+    TierTeamPool(Scoreboard scoreboard, TierComponents tierComponents) {
+        this.scoreboard = scoreboard;
+        this.tierTeams = new ConcurrentHashMap<>();
+        this.playerTeams = new ConcurrentHashMap<>();
+        this.tierComponents = tierComponents;
+    }
+    
+    // Older versions registered a team per player and the pool may hold entries from the last run,
+    // so both are cleared once here instead of scanning the scoreboard on every update
+    int removeStaleTeams() {
+        int removed = 0;
+        
+        for (Team team : scoreboard.getTeams()) {
+            if (team.getName().startsWith("tier_") || team.getName().startsWith(TEAM_PREFIX)) {
+                team.unregister();
+                removed++;
+            }
+        }
+        
+        return removed;
+    }
+    
+    void restyle(TierComponents tierComponents) {
+        this.tierComponents = tierComponents;
+        
+        for (Map.Entry<String, Team> entry : tierTeams.entrySet()) {
+            TierComponents.Entry components = tierComponents.get(entry.getKey());
+            entry.getValue().prefix(components.getNametagPrefix());
+            entry.getValue().suffix(components.getNametagSuffix());
+        }
+    }
+    
+    private Team getTierTeam(String tier) {
+        return tierTeams.computeIfAbsent(tier.toUpperCase(), key -> {
+            String teamName = TEAM_PREFIX + key.toLowerCase();
+            
+            Team team = scoreboard.getTeam(teamName);
+            if (team == null) {
+                team = scoreboard.registerNewTeam(teamName);
+            }
+            
+            TierComponents.Entry components = tierComponents.get(key);
+            team.prefix(components.getNametagPrefix());
+            team.suffix(components.getNametagSuffix());
+            return team;
+        });
+    }
+    
+    void join(UUID playerId, String entry, String tier) {
+        Team team = getTierTeam(tier);
+        Team previous = playerTeams.put(playerId, team);
+        if (previous == team) {
+            return;
+        }
+        
+        if (previous != null) {
+            previous.removeEntry(entry);
+        }
+        team.addEntry(entry);
+    }
+    
+    void leave(UUID playerId, String entry) {
+        Team previous = playerTeams.remove(playerId);
+        if (previous != null) {
+            previous.removeEntry(entry);
+        }
+    }
+    
+    int getTeamCount() {
+        return tierTeams.size();
+    }
+}
@@ -0,0 +1,84 @@
+package net.tiertagger.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheTest {
+    
+    private static final long NEVER = Long.MAX_VALUE;
+    
+    @Test
+    void staysWithinMaximumSize() {
+        MemoryCache<String, String> cache = new MemoryCache<>(100);
+        
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("key" + i, "value" + i, NEVER);
+        }
+        
+        assertEquals(100, cache.size());
+        assertEquals(900, cache.getEvictions());
+        assertEquals("value999", cache.get("key999"));
+    }
+    
+    @Test
+    void keepsFrequentlyUsedEntries() {
+        MemoryCache<String, String> cache = new MemoryCache<>(100);
+        for (int i = 0; i < 100; i++) {
+            cache.put("hot" + i, "value", NEVER);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 20; i++) {
+                cache.get("hot" + i);
+            }
+        }
+        
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("cold" + i, "value", NEVER);
+        }
+        
+        int survivors = 0;
+        for (int i = 0; i < 20; i++) {
+            if (cache.get("hot" + i) != null) {
+                survivors++;
+            }
+        }
+        // A hot entry only loses when all eight candidates are hot, so at most a rare one goes
+        assertTrue(survivors >= 19, "only " + survivors + " of 20 hot entries survived");
+    }
+    
+    @Test
+    void evictsAcrossTheWholeKeySpace() {
+        MemoryCache<Integer, Integer> cache = new MemoryCache<>(10);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i, NEVER);
+        }
+        
+        // With random candidates every original entry is eventually replaced, not just the first buckets
+        for (int i = 10; i < 2_000; i++) {
+            cache.put(i, i, NEVER);
+        }
+        
+        for (int i = 0; i < 10; i++) {
+            assertNull(cache.get(i), "entry " + i + " was never an eviction candidate");
+        }
+    }
+    
+    @Test
+    void dropsExpiredAndInvalidatedEntries() {
+        MemoryCache<String, String> cache = new MemoryCache<>(10);
+        cache.put("expired", "value", System.currentTimeMillis() - 1);
+        cache.put("live", "value", NEVER);
+        cache.put("invalidated", "value", NEVER);
+        
+        cache.invalidate("invalidated");
+        
+        assertNull(cache.get("expired"));
+        assertNull(cache.get("invalidated"));
+        assertEquals("value", cache.get("live"));
+        assertEquals(1, cache.size());
+        
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,85 @@
+package net.tiertagger.cache;
+
+import net.tiertagger.cache.storage.StorageException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindBufferTest {
+    
+    private static class FlakyWriter implements WriteBehindBuffer.Writer<String> {
+        private final List<String> written = new ArrayList<>();
+        private int failuresLeft;
+        private int attempts;
+        
+        @Override
+        public void write(List<String> values) throws StorageException {
+            attempts++;
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new StorageException("database is locked");
+            }
+            written.addAll(values);
+        }
+    }
+    
+    @Test
+    void writesInBatches() {
+        FlakyWriter writer = new FlakyWriter();
+        WriteBehindBuffer<String, String> buffer = new WriteBehindBuffer<>(10, Runnable::run, writer);
+        
+        for (int i = 0; i < 25; i++) {
+            buffer.add("key" + i, "value" + i);
+        }
+        buffer.flush();
+        
+        assertEquals(25, writer.written.size());
+        assertEquals(0, buffer.getPendingCount());
+        assertEquals(0, buffer.getFailedFlushes());
+    }
+    
+    @Test
+    void keepsFailedBatchForRetry() throws InterruptedException {
+        FlakyWriter writer = new FlakyWriter();
+        WriteBehindBuffer<String, String> buffer = new WriteBehindBuffer<>(100, Runnable::run, writer);
+        buffer.add("a", "1");
+        buffer.add("b", "2");
+        
+        writer.failuresLeft = 1;
+        buffer.flush();
+        assertEquals(2, buffer.getPendingCount());
+        assertEquals(1, buffer.getFailedFlushes());
+        assertEquals("1", buffer.getPending("a"));
+        
+        // Still backing off, so nothing is attempted
+        buffer.flush();
+        assertEquals(1, writer.attempts);
+        
+        Thread.sleep(1100);
+        buffer.flush();
+        assertEquals(2, writer.attempts);
+        assertEquals(List.of("1", "2"), writer.written.stream().sorted().toList());
+        assertEquals(0, buffer.getPendingCount());
+    }
+    
+    @Test
+    void drainIgnoresBackoffAndReportsDroppedWrites() {
+        FlakyWriter writer = new FlakyWriter();
+        WriteBehindBuffer<String, String> buffer = new WriteBehindBuffer<>(100, Runnable::run, writer);
+        buffer.add("a", "1");
+        writer.failuresLeft = 1;
+        buffer.flush();
+        
+        buffer.add("b", "2");
+        assertEquals(0, buffer.drain());
+        assertEquals(2, writer.written.size());
+        
+        buffer.add("c", "3");
+        writer.failuresLeft = 1;
+        assertEquals(1, buffer.drain());
+        assertEquals(0, buffer.getPendingCount());
+    }
+}
@@ -0,0 +1,24 @@
+package net.tiertagger.cache.storage;
+
+import org.junit.jupiter.api.AfterEach;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.logging.Logger;
+
+class H2TierStorageTest extends TierStorageContractTest {
+    
+    private final ScheduledExecutorService maintenanceExecutor = Executors.newSingleThreadScheduledExecutor();
+    
+    @Override
+    TierStorage createStorage(Path directory) {
+        return new H2TierStorage(directory.resolve("tiers.db").toFile(), 4, 5_000, 60_000,
+            Logger.getLogger(H2TierStorageTest.class.getName()), maintenanceExecutor);
+    }
+    
+    @AfterEach
+    void stopMaintenance() {
+        maintenanceExecutor.shutdownNow();
+    }
+}
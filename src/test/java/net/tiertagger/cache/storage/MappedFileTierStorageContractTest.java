@@ -0,0 +1,12 @@
+package net.tiertagger.cache.storage;
+
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+class MappedFileTierStorageContractTest extends TierStorageContractTest {
+    
+    @Override
+    TierStorage createStorage(Path directory) {
+        return new MappedFileTierStorage(directory.resolve("tiers.tiers").toFile(), Logger.getLogger(MappedFileTierStorageContractTest.class.getName()));
+    }
+}
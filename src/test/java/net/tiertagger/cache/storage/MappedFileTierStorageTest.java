@@ -0,0 +1,204 @@
+package net.tiertagger.cache.storage;
+
+import net.tiertagger.models.PlayerTierData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileTierStorageTest {
+    
+    private static final Logger LOGGER = Logger.getLogger(MappedFileTierStorageTest.class.getName());
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    
+    @TempDir
+    Path directory;
+    
+    private MappedFileTierStorage storage;
+    
+    @AfterEach
+    void closeStorage() {
+        if (storage != null) {
+            storage.close();
+        }
+    }
+    
+    private File storageFile() {
+        return directory.resolve("tiers.tiers").toFile();
+    }
+    
+    private MappedFileTierStorage open() throws StorageException {
+        if (storage != null) {
+            storage.close();
+        }
+        storage = new MappedFileTierStorage(storageFile(), LOGGER);
+        storage.open();
+        return storage;
+    }
+    
+    private static CachedTier tier(String uuid, int tierValue, LocalDateTime expiresAt) {
+        PlayerTierData data = new PlayerTierData();
+        data.setRegion("NA");
+        data.setPoints(tierValue * 10);
+        Map<String, PlayerTierData.GamemodeTier> gamemodes = new HashMap<>();
+        gamemodes.put("sword", new PlayerTierData.GamemodeTier(tierValue, 0, tierValue, 0, 1700000000L, false));
+        data.setGamemodes(gamemodes);
+        return new CachedTier(uuid, "player_" + uuid.substring(0, 4), data, NOW, expiresAt);
+    }
+    
+    @Test
+    void roundTripsAcrossReopen() throws StorageException {
+        open().putAll(List.of(tier("aaaa-1", 1, NOW.plusHours(1)), tier("bbbb-2", 4, NOW.plusHours(1))));
+        open();
+        
+        CachedTier loaded = storage.get("aaaa-1", NOW).orElseThrow();
+        assertEquals("player_aaaa", loaded.getUsername());
+        assertEquals("HT1", loaded.getTierData().getBestTier());
+        assertEquals(NOW, loaded.getCachedAt());
+        assertEquals(NOW.plusHours(1), loaded.getExpiresAt());
+        assertEquals("LT2", storage.get("bbbb-2", NOW).orElseThrow().getTierData().getBestTier());
+        assertTrue(storage.get("cccc-3", NOW).isEmpty());
+    }
+    
+    @Test
+    void latestWriteWins() throws StorageException {
+        open().put(tier("aaaa-1", 1, NOW.plusHours(1)));
+        storage.put(tier("aaaa-1", 6, NOW.plusHours(2)));
+        open();
+        
+        CachedTier loaded = storage.get("aaaa-1", NOW).orElseThrow();
+        assertEquals("LT3", loaded.getTierData().getBestTier());
+        assertEquals(NOW.plusHours(2), loaded.getExpiresAt());
+    }
+    
+    @Test
+    void expiresInChunksAndPersistsDeletes() throws StorageException {
+        open();
+        for (int i = 0; i < 10; i++) {
+            storage.put(tier("old" + i + "-uuid", 1, NOW.minusMinutes(5)));
+        }
+        storage.put(tier("live-uuid", 1, NOW.plusHours(1)));
+        
+        assertEquals(4, storage.expire(NOW, 4));
+        assertEquals(6, storage.expire(NOW, 100));
+        assertEquals(0, storage.expire(NOW, 100));
+        
+        open();
+        assertEquals(0, storage.expire(NOW, 100));
+        assertTrue(storage.get("live-uuid", NOW).isPresent());
+        assertTrue(storage.get("old0-uuid", NOW.minusHours(1)).isEmpty());
+    }
+    
+    @Test
+    void compactsOverwrittenRecords() throws StorageException {
+        open();
+        storage.putIdentity(new CachedIdentity("aaaa-1", "Steve", NOW));
+        
+        // Enough overwrites to pass the compaction threshold several times over
+        for (int round = 0; round < 4_000; round++) {
+            for (int i = 0; i < 10; i++) {
+                storage.put(tier("uuid-" + i, 1 + round % 10, NOW.plusHours(1)));
+            }
+            storage.put(tier("gone-uuid", 1, NOW.minusMinutes(1)));
+            storage.expire(NOW, 100);
+        }
+        storage.putIdentity(new CachedIdentity("bbbb-2", "Alex", NOW));
+        
+        long compactedLength = storageFile().length();
+        open();
+        
+        for (int i = 0; i < 10; i++) {
+            assertEquals("LT5", storage.get("uuid-" + i, NOW).orElseThrow().getTierData().getBestTier());
+        }
+        assertEquals("aaaa-1", storage.getIdentityByUsername("steve", NOW.minusDays(1)).orElseThrow().getUuid());
+        assertEquals("Alex", storage.getIdentityByUuid("bbbb-2", NOW.minusDays(1)).orElseThrow().getUsername());
+        assertTrue(compactedLength <= 2 << 20, "file grew to " + compactedLength + " bytes without compacting");
+    }
+    
+    @Test
+    void compactsWithoutExpiries() throws StorageException {
+        open();
+        
+        // Steady re-fetches of the same players, nothing ever expires
+        for (int round = 0; round < 4_000; round++) {
+            List<CachedTier> batch = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                batch.add(tier("uuid-" + i, 1 + round % 10, NOW.plusHours(1)));
+            }
+            storage.putAll(batch);
+        }
+        
+        assertTrue(storageFile().length() <= 2 << 20, "file grew to " + storageFile().length() + " bytes without compacting");
+        assertFalse(new File(storageFile().getPath() + ".compact").exists());
+        
+        open();
+        for (int i = 0; i < 10; i++) {
+            assertEquals("LT5", storage.get("uuid-" + i, NOW).orElseThrow().getTierData().getBestTier());
+        }
+    }
+    
+    @Test
+    void ignoresLeftoverCompactionFile() throws Exception {
+        open().put(tier("aaaa-1", 1, NOW.plusHours(1)));
+        storage.close();
+        storage = null;
+        
+        // A crash while the compacted copy was being written leaves it half done next to the intact log
+        Files.write(directory.resolve("tiers.tiers.compact"), new byte[] {0x54, 0x54, 0x4D});
+        
+        open();
+        assertTrue(storage.get("aaaa-1", NOW).isPresent());
+    }
+    
+    @Test
+    void recoversFromTornTail() throws Exception {
+        open().put(tier("aaaa-1", 1, NOW.plusHours(1)));
+        storage.close();
+        storage = null;
+        
+        try (RandomAccessFile raw = new RandomAccessFile(storageFile(), "rw")) {
+            raw.seek(8);
+            int end = 8 + 4 + raw.readInt();
+            
+            // A length prefix that looks valid followed by a record that was never fully written
+            raw.seek(end);
+            raw.writeInt(60);
+            raw.writeByte(1);
+            raw.writeShort(5000);
+        }
+        
+        open();
+        assertTrue(storage.get("aaaa-1", NOW).isPresent());
+        
+        storage.put(tier("bbbb-2", 2, NOW.plusHours(1)));
+        open();
+        assertTrue(storage.get("aaaa-1", NOW).isPresent());
+        assertTrue(storage.get("bbbb-2", NOW).isPresent());
+    }
+    
+    @Test
+    void loadsMostRecentFirst() throws StorageException {
+        open();
+        for (int i = 0; i < 5; i++) {
+            PlayerTierData data = new PlayerTierData();
+            storage.put(new CachedTier("uuid-" + i, "p" + i, data, NOW.minusMinutes(i), NOW.plusHours(1)));
+        }
+        
+        List<String> loaded = new ArrayList<>();
+        assertEquals(3, storage.loadRecent(3, NOW, tier -> loaded.add(tier.getUuid())));
+        assertEquals(List.of("uuid-0", "uuid-1", "uuid-2"), loaded);
+    }
+}
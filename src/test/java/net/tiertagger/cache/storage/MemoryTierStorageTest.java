@@ -0,0 +1,11 @@
+package net.tiertagger.cache.storage;
+
+import java.nio.file.Path;
+
+class MemoryTierStorageTest extends TierStorageContractTest {
+    
+    @Override
+    TierStorage createStorage(Path directory) {
+        return new MemoryTierStorage();
+    }
+}
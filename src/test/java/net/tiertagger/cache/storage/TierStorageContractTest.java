@@ -0,0 +1,153 @@
+package net.tiertagger.cache.storage;
+
+import net.tiertagger.models.PlayerTierData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Behaviour every storage backend has to share, each backend runs it through its own subclass
+abstract class TierStorageContractTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    
+    @TempDir
+    Path directory;
+    
+    private TierStorage storage;
+    
+    abstract TierStorage createStorage(Path directory);
+    
+    @BeforeEach
+    void openStorage() throws StorageException {
+        storage = createStorage(directory);
+        storage.open();
+    }
+    
+    @AfterEach
+    void closeStorage() {
+        storage.close();
+    }
+    
+    private static CachedTier tier(String uuid, int tierValue, LocalDateTime cachedAt, LocalDateTime expiresAt) {
+        PlayerTierData data = new PlayerTierData();
+        data.setRegion("EU");
+        data.setPoints(tierValue * 10);
+        Map<String, PlayerTierData.GamemodeTier> gamemodes = new HashMap<>();
+        gamemodes.put("sword", new PlayerTierData.GamemodeTier(tierValue, 0, tierValue, 0, 1700000000L, false));
+        data.setGamemodes(gamemodes);
+        return new CachedTier(uuid, "player" + uuid.length(), data, cachedAt, expiresAt);
+    }
+    
+    @Test
+    void roundTripsEntries() throws StorageException {
+        storage.put(tier("uuid-1", 3, NOW, NOW.plusHours(1)));
+        
+        CachedTier loaded = storage.get("uuid-1", NOW).orElseThrow();
+        assertEquals("player6", loaded.getUsername());
+        assertEquals("HT2", loaded.getTierData().getBestTier());
+        assertEquals(30, loaded.getTierData().getPoints());
+        assertEquals(NOW, loaded.getCachedAt());
+        assertEquals(NOW.plusHours(1), loaded.getExpiresAt());
+        assertTrue(storage.get("uuid-2", NOW).isEmpty());
+    }
+    
+    @Test
+    void hidesExpiredEntries() throws StorageException {
+        storage.put(tier("uuid-1", 1, NOW, NOW.plusMinutes(5)));
+        
+        assertTrue(storage.get("uuid-1", NOW).isPresent());
+        assertTrue(storage.get("uuid-1", NOW.plusMinutes(10)).isEmpty());
+    }
+    
+    @Test
+    void latestWriteWins() throws StorageException {
+        storage.put(tier("uuid-1", 1, NOW, NOW.plusHours(1)));
+        storage.putAll(List.of(tier("uuid-1", 6, NOW, NOW.plusHours(2))));
+        
+        CachedTier loaded = storage.get("uuid-1", NOW).orElseThrow();
+        assertEquals("LT3", loaded.getTierData().getBestTier());
+        assertEquals(NOW.plusHours(2), loaded.getExpiresAt());
+    }
+    
+    @Test
+    void getsOnlyLiveEntriesInBulk() throws StorageException {
+        storage.putAll(List.of(
+            tier("uuid-1", 1, NOW, NOW.plusHours(1)),
+            tier("uuid-2", 2, NOW, NOW.minusMinutes(1)),
+            tier("uuid-3", 3, NOW, NOW.plusHours(1))
+        ));
+        
+        Map<String, CachedTier> loaded = storage.getAll(List.of("uuid-1", "uuid-2", "uuid-3", "uuid-4"), NOW);
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.containsKey("uuid-1"));
+        assertTrue(loaded.containsKey("uuid-3"));
+    }
+    
+    @Test
+    void loadsMostRecentFirst() throws StorageException {
+        for (int i = 0; i < 5; i++) {
+            storage.put(tier("uuid-" + i, 1, NOW.minusMinutes(i), NOW.plusHours(1)));
+        }
+        
+        List<String> loaded = new ArrayList<>();
+        assertEquals(3, storage.loadRecent(3, NOW, tier -> loaded.add(tier.getUuid())));
+        assertEquals(List.of("uuid-0", "uuid-1", "uuid-2"), loaded);
+    }
+    
+    @Test
+    void touchMovesTimestampsOnly() throws StorageException {
+        storage.put(tier("uuid-1", 4, NOW.minusHours(1), NOW.plusMinutes(1)));
+        storage.touch("uuid-1", NOW, NOW.plusHours(3));
+        storage.touch("uuid-missing", NOW, NOW.plusHours(3));
+        
+        CachedTier loaded = storage.get("uuid-1", NOW.plusHours(2)).orElseThrow();
+        assertEquals(NOW, loaded.getCachedAt());
+        assertEquals("LT2", loaded.getTierData().getBestTier());
+        assertTrue(storage.get("uuid-missing", NOW).isEmpty());
+    }
+    
+    @Test
+    void expiresInChunks() throws StorageException {
+        for (int i = 0; i < 10; i++) {
+            storage.put(tier("old-" + i, 1, NOW.minusHours(1), NOW.minusMinutes(5)));
+        }
+        storage.put(tier("live", 1, NOW, NOW.plusHours(1)));
+        
+        assertEquals(4, storage.expire(NOW, 4));
+        assertEquals(6, storage.expire(NOW, 100));
+        assertEquals(0, storage.expire(NOW, 100));
+        assertTrue(storage.get("live", NOW).isPresent());
+    }
+    
+    @Test
+    void clearKeepsIdentities() throws StorageException {
+        storage.putAll(List.of(tier("uuid-1", 1, NOW, NOW.plusHours(1)), tier("uuid-2", 2, NOW, NOW.plusHours(1))));
+        storage.putIdentity(new CachedIdentity("uuid-1", "Steve", NOW));
+        
+        assertEquals(2, storage.clear());
+        assertTrue(storage.get("uuid-1", NOW).isEmpty());
+        assertTrue(storage.getIdentityByUuid("uuid-1", NOW.minusDays(1)).isPresent());
+    }
+    
+    @Test
+    void movesUsernameToNewOwner() throws StorageException {
+        storage.putIdentity(new CachedIdentity("uuid-1", "Steve", NOW));
+        assertEquals("uuid-1", storage.getIdentityByUsername("Steve", NOW.minusDays(1)).orElseThrow().getUuid());
+        
+        storage.putIdentity(new CachedIdentity("uuid-2", "Steve", NOW));
+        assertEquals("uuid-2", storage.getIdentityByUsername("Steve", NOW.minusDays(1)).orElseThrow().getUuid());
+        assertTrue(storage.getIdentityByUuid("uuid-1", NOW.minusDays(1)).isEmpty());
+        assertTrue(storage.getIdentityByUuid("uuid-2", NOW.plusDays(1)).isEmpty());
+    }
+}
@@ -0,0 +1,149 @@
+package net.tiertagger.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerTierDataCodecTest {
+    
+    private static PlayerTierData samplePlayer() {
+        PlayerTierData data = new PlayerTierData();
+        data.setRegion("EU");
+        data.setPoints(312);
+        data.setOverall(1487);
+        data.setCachedAt(LocalDateTime.of(2026, 10, 18, 12, 0));
+        
+        Map<String, PlayerTierData.GamemodeTier> gamemodes = new HashMap<>();
+        gamemodes.put("vanilla", new PlayerTierData.GamemodeTier(3, 0, 2, 1, 1717171717L, false));
+        gamemodes.put("sword", new PlayerTierData.GamemodeTier(5, 1, 5, 1, 1700000000L, false));
+        gamemodes.put("crystal", new PlayerTierData.GamemodeTier(8, 0, 4, 0, 1690000000L, true));
+        gamemodes.put("bedwars", new PlayerTierData.GamemodeTier(10, 1, 10, 1, 1680000000L, false));
+        data.setGamemodes(gamemodes);
+        return data;
+    }
+    
+    private static void assertSameTierData(PlayerTierData expected, PlayerTierData actual) {
+        assertEquals(expected.getRegion(), actual.getRegion());
+        assertEquals(expected.getPoints(), actual.getPoints());
+        assertEquals(expected.getOverall(), actual.getOverall());
+        assertEquals(expected.getGamemodes().keySet(), actual.getGamemodes().keySet());
+        
+        for (Map.Entry<String, PlayerTierData.GamemodeTier> entry : expected.getGamemodes().entrySet()) {
+            PlayerTierData.GamemodeTier expectedTier = entry.getValue();
+            PlayerTierData.GamemodeTier actualTier = actual.getGamemodes().get(entry.getKey());
+            assertEquals(expectedTier.getTier(), actualTier.getTier());
+            assertEquals(expectedTier.getPosition(), actualTier.getPosition());
+            assertEquals(expectedTier.getPeakTier(), actualTier.getPeakTier());
+            assertEquals(expectedTier.getPeakPosition(), actualTier.getPeakPosition());
+            assertEquals(expectedTier.getAttained(), actualTier.getAttained());
+            assertEquals(expectedTier.isRetired(), actualTier.isRetired());
+        }
+    }
+    
+    @Test
+    void roundTripsAllFields() {
+        PlayerTierData data = samplePlayer();
+        data.setEtag("\"abc123\"");
+        data.setLastModified("Sun, 18 Oct 2026 00:00:00 GMT");
+        data.setContentHash(-8_123_456_789L);
+        
+        PlayerTierData decoded = PlayerTierDataCodec.decode(PlayerTierDataCodec.encode(data));
+        
+        assertSameTierData(data, decoded);
+        assertEquals(data.getEtag(), decoded.getEtag());
+        assertEquals(data.getLastModified(), decoded.getLastModified());
+        assertEquals(data.getContentHash(), decoded.getContentHash());
+        assertEquals(data.getBestTier(), decoded.getBestTier());
+        assertFalse(decoded.isNotFound());
+    }
+    
+    @Test
+    void roundTripsNotFoundMarker() {
+        PlayerTierData decoded = PlayerTierDataCodec.decode(PlayerTierDataCodec.encode(PlayerTierData.notFound()));
+        
+        assertTrue(decoded.isNotFound());
+        assertTrue(decoded.getGamemodes().isEmpty());
+        assertNull(decoded.getRegion());
+    }
+    
+    @Test
+    void decodesVersionOneEntries() {
+        PlayerTierData data = samplePlayer();
+        byte[] current = PlayerTierDataCodec.encode(data);
+        
+        // Version 1 stopped after the gamemodes, the newer trailer is four zero bytes when unset
+        byte[] legacy = Arrays.copyOf(current, current.length - 4);
+        legacy[0] = 1;
+        
+        PlayerTierData decoded = PlayerTierDataCodec.decode(legacy);
+        assertSameTierData(data, decoded);
+        assertNull(decoded.getEtag());
+        assertEquals(0L, decoded.getContentHash());
+        assertFalse(decoded.isNotFound());
+    }
+    
+    @Test
+    void reencodesLegacyJsonRows() {
+        PlayerTierData data = samplePlayer();
+        
+        // This is the path the H2 migration takes for rows still holding JSON in tier_data
+        PlayerTierData legacy = PlayerTierData.fromJson(data.toJson());
+        PlayerTierData decoded = PlayerTierDataCodec.decode(PlayerTierDataCodec.encode(legacy));
+        
+        assertSameTierData(data, decoded);
+        assertEquals(data.getCachedAt(), legacy.getCachedAt());
+    }
+    
+    @Test
+    void rejectsCorruptData() {
+        byte[] encoded = PlayerTierDataCodec.encode(samplePlayer());
+        
+        assertThrows(IllegalArgumentException.class, () -> PlayerTierDataCodec.decode(Arrays.copyOf(encoded, encoded.length / 2)));
+        assertThrows(IllegalArgumentException.class, () -> PlayerTierDataCodec.decode(new byte[]{(byte) 99}));
+        assertThrows(IllegalArgumentException.class, () -> PlayerTierDataCodec.decode(new byte[0]));
+    }
+    
+    @Test
+    void encodesSmallerThanJson() {
+        PlayerTierData data = samplePlayer();
+        int binarySize = PlayerTierDataCodec.encode(data).length;
+        int jsonSize = data.toJson().getBytes(StandardCharsets.UTF_8).length;
+        
+        System.out.println("Codec size: binary " + binarySize + " bytes, JSON " + jsonSize + " bytes");
+        assertTrue(binarySize * 3 < jsonSize, "binary " + binarySize + " bytes is not a third of JSON " + jsonSize + " bytes");
+    }
+    
+    @Test
+    void benchmarkAgainstJson() {
+        PlayerTierData data = samplePlayer();
+        byte[] encoded = PlayerTierDataCodec.encode(data);
+        int iterations = 20_000;
+        
+        // Warm both paths up before timing so the comparison is not dominated by class loading
+        for (int i = 0; i < iterations; i++) {
+            PlayerTierDataCodec.decode(PlayerTierDataCodec.encode(data));
+            PlayerTierData.fromJson(data.toJson());
+        }
+        
+        long binaryStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            PlayerTierDataCodec.decode(PlayerTierDataCodec.encode(data));
+        }
+        long binaryNanos = System.nanoTime() - binaryStart;
+        
+        long jsonStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            PlayerTierData.fromJson(data.toJson());
+        }
+        long jsonNanos = System.nanoTime() - jsonStart;
+        
+        System.out.println("Codec round trip: binary " + binaryNanos / iterations + " ns, JSON " + jsonNanos / iterations + " ns");
+        assertSameTierData(data, PlayerTierDataCodec.decode(encoded));
+    }
+}
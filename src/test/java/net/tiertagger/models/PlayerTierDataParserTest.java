@@ -0,0 +1,218 @@
+package net.tiertagger.models;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerTierDataParserTest {
+    
+    private static final String MCTIERS_FULL = """
+        {
+          "uuid": "069a79f444e94726a5befca90e38aaf5",
+          "name": "Notch",
+          "region": "NA",
+          "points": 312,
+          "overall": 14,
+          "badges": [{"title": "Founder", "desc": "x"}],
+          "combat_master": false,
+          "rankings": {
+            "vanilla": {"tier": 2, "pos": 0, "peak_tier": 1, "peak_pos": 0, "attained": 1717171717, "retired": false},
+            "sword": {"tier": 3, "pos": 1, "peak_tier": 3, "peak_pos": 1, "attained": 1700000000, "retired": true, "extra": {"a": [1, 2]}},
+            "nethop": {"tier": 5, "pos": 1, "peak_tier": 4, "peak_pos": 0, "attained": 1690000000, "retired": false}
+          }
+        }
+        """;
+    
+    private static final String MCTIERS_MINIMAL = """
+        {"uuid": "853c80ef3c3749fdaa49938b674adae6", "name": "jeb_"}
+        """;
+    
+    private static final String MCTIERS_UNICODE = """
+        {"name": "Dinnerbone", "uuid": "61699b2ed3274a019f1e0ea8c3f06bc6", "region": "EU\\u00e9", "rankings": {}, "points": 0}
+        """;
+    
+    private static final String SOUTHTIERS_RANKED = """
+        {"success": true, "data": {"jogador": "Notch", "ranking": "High Tier 3", "pontos": 40, "historico": [{"x": 1}]}}
+        """;
+    
+    private static final String SOUTHTIERS_UNRANKED = """
+        {"data": {"ranking": "Sem ranking", "jogador": "jeb_"}, "success": true}
+        """;
+    
+    private static final String SOUTHTIERS_MISSING = """
+        {"success": false, "message": "Jogador nao encontrado"}
+        """;
+    
+    // The tree-based parsers the streaming reader replaced, kept here as the reference behaviour
+    private static PlayerTierData treeMCTiers(String jsonString) {
+        JsonObject json = JsonParser.parseString(jsonString).getAsJsonObject();
+        
+        PlayerTierData data = new PlayerTierData();
+        data.setUuid(json.get("uuid").getAsString());
+        data.setUsername(json.get("name").getAsString());
+        data.setRegion(json.has("region") ? json.get("region").getAsString() : "");
+        data.setPoints(json.has("points") ? json.get("points").getAsInt() : 0);
+        data.setOverall(json.has("overall") ? json.get("overall").getAsInt() : 0);
+        
+        if (json.has("rankings")) {
+            JsonObject rankings = json.getAsJsonObject("rankings");
+            for (String gamemode : rankings.keySet()) {
+                JsonObject gamemodeData = rankings.getAsJsonObject(gamemode);
+                data.getGamemodes().put(gamemode, new PlayerTierData.GamemodeTier(
+                    gamemodeData.get("tier").getAsInt(),
+                    gamemodeData.get("pos").getAsInt(),
+                    gamemodeData.get("peak_tier").getAsInt(),
+                    gamemodeData.get("peak_pos").getAsInt(),
+                    gamemodeData.get("attained").getAsLong(),
+                    gamemodeData.get("retired").getAsBoolean()
+                ));
+            }
+        }
+        
+        return data;
+    }
+    
+    private static PlayerTierData treeSouthTiers(String jsonString) {
+        JsonObject json = JsonParser.parseString(jsonString).getAsJsonObject();
+        
+        PlayerTierData data = new PlayerTierData();
+        if (json.get("success").getAsBoolean()) {
+            JsonObject dataObj = json.getAsJsonObject("data");
+            data.setUsername(dataObj.get("jogador").getAsString());
+            int tierValue = southTierRanking(dataObj.get("ranking").getAsString());
+            data.getGamemodes().put("vanilla", new PlayerTierData.GamemodeTier(tierValue, 0, tierValue, 0, System.currentTimeMillis() / 1000, false));
+        }
+        
+        return data;
+    }
+    
+    private static int southTierRanking(String ranking) {
+        return switch (ranking.toLowerCase()) {
+            case "high tier 1" -> 1;
+            case "low tier 1" -> 2;
+            case "high tier 2" -> 3;
+            case "low tier 2" -> 4;
+            case "high tier 3" -> 5;
+            case "low tier 3" -> 6;
+            case "high tier 4" -> 7;
+            case "low tier 4" -> 8;
+            case "high tier 5" -> 9;
+            case "low tier 5" -> 10;
+            default -> 0;
+        };
+    }
+    
+    private static PlayerTierData streamMCTiers(String json) {
+        try {
+            return PlayerTierData.fromMCTiersJson(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+    
+    private static PlayerTierData streamSouthTiers(String json) {
+        try {
+            return PlayerTierData.fromSouthTiersJson(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+    
+    private static void assertEquivalent(PlayerTierData expected, PlayerTierData actual) {
+        assertEquals(expected.getUuid(), actual.getUuid());
+        assertEquals(expected.getUsername(), actual.getUsername());
+        assertEquals(expected.getRegion(), actual.getRegion());
+        assertEquals(expected.getPoints(), actual.getPoints());
+        assertEquals(expected.getOverall(), actual.getOverall());
+        assertEquals(expected.getGamemodes().keySet(), actual.getGamemodes().keySet());
+        
+        for (Map.Entry<String, PlayerTierData.GamemodeTier> entry : expected.getGamemodes().entrySet()) {
+            PlayerTierData.GamemodeTier expectedTier = entry.getValue();
+            PlayerTierData.GamemodeTier actualTier = actual.getGamemodes().get(entry.getKey());
+            assertEquals(expectedTier.getTier(), actualTier.getTier());
+            assertEquals(expectedTier.getPosition(), actualTier.getPosition());
+            assertEquals(expectedTier.getPeakTier(), actualTier.getPeakTier());
+            assertEquals(expectedTier.getPeakPosition(), actualTier.getPeakPosition());
+            // South Tiers stamps attained with the current time, so allow for the gap between the two parses
+            assertTrue(Math.abs(expectedTier.getAttained() - actualTier.getAttained()) <= 1);
+            assertEquals(expectedTier.isRetired(), actualTier.isRetired());
+        }
+    }
+    
+    @Test
+    void matchesTreeParserForMCTiers() {
+        for (String payload : new String[] {MCTIERS_FULL, MCTIERS_MINIMAL, MCTIERS_UNICODE}) {
+            assertEquivalent(treeMCTiers(payload), streamMCTiers(payload));
+        }
+    }
+    
+    @Test
+    void matchesTreeParserForSouthTiers() {
+        for (String payload : new String[] {SOUTHTIERS_RANKED, SOUTHTIERS_UNRANKED, SOUTHTIERS_MISSING}) {
+            assertEquivalent(treeSouthTiers(payload), streamSouthTiers(payload));
+        }
+    }
+    
+    @Test
+    void readsExpectedMCTiersValues() {
+        PlayerTierData data = streamMCTiers(MCTIERS_FULL);
+        
+        assertEquals("069a79f444e94726a5befca90e38aaf5", data.getUuid());
+        assertEquals("Notch", data.getUsername());
+        assertEquals("NA", data.getRegion());
+        assertEquals(312, data.getPoints());
+        assertEquals(14, data.getOverall());
+        assertEquals(3, data.getGamemodes().size());
+        assertEquals(1717171717L, data.getGamemodes().get("vanilla").getAttained());
+        assertTrue(data.getGamemodes().get("sword").isRetired());
+        assertEquals("LT1", data.getTierForGamemode("vanilla"));
+        assertFalse(data.isNotFound());
+    }
+    
+    @Test
+    void readsExpectedSouthTiersValues() {
+        PlayerTierData ranked = streamSouthTiers(SOUTHTIERS_RANKED);
+        assertEquals("Notch", ranked.getUsername());
+        assertEquals(5, ranked.getGamemodes().get("vanilla").getTier());
+        assertFalse(ranked.isNotFound());
+        
+        PlayerTierData unranked = streamSouthTiers(SOUTHTIERS_UNRANKED);
+        assertEquals(0, unranked.getGamemodes().get("vanilla").getTier());
+        
+        PlayerTierData missing = streamSouthTiers(SOUTHTIERS_MISSING);
+        assertTrue(missing.isNotFound());
+        assertTrue(missing.getGamemodes().isEmpty());
+    }
+    
+    @Test
+    void treatsNullFieldsAsMissing() {
+        PlayerTierData data = streamMCTiers("""
+            {"uuid": "069a79f444e94726a5befca90e38aaf5", "name": "Notch", "region": null, "points": null,
+             "rankings": {"vanilla": {"tier": 4, "pos": null, "peak_tier": null, "peak_pos": 1, "attained": null, "retired": null}}}
+            """);
+        
+        assertEquals("", data.getRegion());
+        assertEquals(0, data.getPoints());
+        PlayerTierData.GamemodeTier vanilla = data.getGamemodes().get("vanilla");
+        assertEquals(4, vanilla.getTier());
+        assertEquals(0, vanilla.getPosition());
+        assertEquals(1, vanilla.getPeakPosition());
+        assertEquals(0, vanilla.getAttained());
+        assertFalse(vanilla.isRetired());
+        
+        assertTrue(streamSouthTiers("{\"success\": true, \"data\": null}").getGamemodes().isEmpty());
+        assertTrue(streamMCTiers("{\"uuid\": \"x\", \"name\": \"y\", \"rankings\": null}").getGamemodes().isEmpty());
+    }
+    
+    @Test
+    void rejectsMalformedBodies() {
+        assertThrows(IOException.class, () -> PlayerTierData.fromMCTiersJson("{\"name\": ".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IOException.class, () -> PlayerTierData.fromSouthTiersJson("{\"success\": true, \"data\": {".getBytes(StandardCharsets.UTF_8)));
+    }
+}
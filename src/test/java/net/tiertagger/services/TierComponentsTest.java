@@ -0,0 +1,95 @@
+package net.tiertagger.services;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import net.tiertagger.config.ConfigurationManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TierComponentsTest {
+    
+    private static final String[] TIERS = {"HT1", "LT1", "HT2", "LT2", "HT3", "LT3", "HT4", "LT4", "HT5", "LT5", "UNRANKED"};
+    
+    private static String plain(Component component) {
+        // Gradients are written as legacy hex codes, strip them so only the visible text is compared
+        return PlainTextComponentSerializer.plainText().serialize(component).replaceAll("§.", "");
+    }
+    
+    private static TextColor colorOf(Component component, String text, TextColor inherited) {
+        TextColor color = component.color() != null ? component.color() : inherited;
+        if (component instanceof TextComponent textComponent && textComponent.content().contains(text)) {
+            return color;
+        }
+        
+        for (Component child : component.children()) {
+            TextColor found = colorOf(child, text, color);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+    
+    @Test
+    void rendersEveryKnownTier() {
+        TierComponents components = TierComponents.build(Map.of());
+        
+        for (String tier : TIERS) {
+            TierComponents.Entry entry = components.get(tier);
+            assertEquals(tier + " | Steve", plain(entry.displayName("Steve")));
+            assertEquals(tier + " | ", plain(entry.getNametagPrefix()));
+            assertEquals("", plain(entry.getNametagSuffix()));
+        }
+    }
+    
+    @Test
+    void reusesPrebuiltEntries() {
+        TierComponents components = TierComponents.build(Map.of());
+        
+        assertSame(components.get("HT3"), components.get("HT3"));
+        assertSame(components.get("HT3"), components.get("ht3"));
+    }
+    
+    @Test
+    void usesDefaultColorsWithoutConfiguration() {
+        TierComponents components = TierComponents.build(Map.of());
+        
+        assertEquals(NamedTextColor.RED, colorOf(components.get("HT1").getNametagPrefix(), "HT1", null));
+        assertEquals(NamedTextColor.AQUA, colorOf(components.get("HT3").getNametagPrefix(), "HT3", null));
+        assertEquals(NamedTextColor.DARK_GRAY, colorOf(components.get("LT5").getNametagPrefix(), "LT5", null));
+        assertEquals(NamedTextColor.WHITE, colorOf(components.get("UNRANKED").getNametagPrefix(), "UNRANKED", null));
+    }
+    
+    @Test
+    void appliesConfiguredGradient() {
+        TierComponents defaults = TierComponents.build(Map.of());
+        TierComponents configured = TierComponents.build(Map.of("lt3", new ConfigurationManager.TierColor("#FF0000", "#0000FF")));
+        
+        assertNotEquals(defaults.get("LT3").getNametagPrefix(), configured.get("LT3").getNametagPrefix());
+        assertEquals("LT3 | ", plain(configured.get("LT3").getNametagPrefix()));
+        assertEquals(defaults.get("HT1").getNametagPrefix(), configured.get("HT1").getNametagPrefix());
+    }
+    
+    @Test
+    void appendsWhitePlayerName() {
+        Component displayName = TierComponents.build(Map.of()).get("HT2").displayName("Notch");
+        
+        assertEquals("HT2 | Notch", plain(displayName));
+        assertEquals(NamedTextColor.WHITE, colorOf(displayName, "Notch", null));
+    }
+    
+    @Test
+    void rendersUnknownTiersOnDemand() {
+        TierComponents components = TierComponents.build(Map.of());
+        TierComponents.Entry entry = components.get("RETIRED");
+        
+        assertEquals("RETIRED | Steve", plain(entry.displayName("Steve")));
+        assertEquals(NamedTextColor.WHITE, colorOf(entry.getNametagPrefix(), "RETIRED", null));
+    }
+}
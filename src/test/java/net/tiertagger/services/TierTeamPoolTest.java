@@ -0,0 +1,194 @@
+package net.tiertagger.services;
+
+import net.tiertagger.config.ConfigurationManager;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TierTeamPoolTest {
+    
+    private static final String[] TIERS = {"HT1", "LT1", "HT2", "LT2", "HT3", "LT3", "HT4", "LT4", "HT5", "LT5", "UNRANKED"};
+    private static final int PLAYERS = 1000;
+    
+    private FakeScoreboard fake;
+    private TierTeamPool pool;
+    
+    @BeforeEach
+    void setUp() {
+        fake = new FakeScoreboard();
+        pool = new TierTeamPool(fake.scoreboard, TierComponents.build(Map.of()));
+    }
+    
+    @Test
+    void removesStaleTeamsOnly() {
+        for (int i = 0; i < PLAYERS; i++) {
+            fake.scoreboard.registerNewTeam("tier_player" + i);
+        }
+        fake.scoreboard.registerNewTeam(TierTeamPool.TEAM_PREFIX + "ht1");
+        fake.scoreboard.registerNewTeam("red");
+        
+        assertEquals(PLAYERS + 1, pool.removeStaleTeams());
+        assertEquals(Set.of("red"), fake.teams.keySet());
+    }
+    
+    @Test
+    void keepsTeamCountBoundedUnderChurn() {
+        Random random = new Random(42);
+        List<UUID> playerIds = new ArrayList<>();
+        Map<UUID, String> expectedTiers = new HashMap<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            playerIds.add(new UUID(0, i));
+        }
+        
+        int operations = 0;
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < PLAYERS; i++) {
+                UUID playerId = playerIds.get(i);
+                String name = "Player" + i;
+                int action = random.nextInt(10);
+                
+                if (action == 0) {
+                    pool.leave(playerId, name);
+                    expectedTiers.remove(playerId);
+                } else if (action < 3 && expectedTiers.containsKey(playerId)) {
+                    pool.join(playerId, name, expectedTiers.get(playerId));
+                } else {
+                    String tier = TIERS[random.nextInt(TIERS.length)];
+                    pool.join(playerId, name, tier);
+                    expectedTiers.put(playerId, tier);
+                }
+                operations++;
+            }
+            
+            assertTrue(fake.teams.size() <= TIERS.length, "teams after round " + round + ": " + fake.teams.size());
+            assertTrue(pool.getTeamCount() <= TIERS.length);
+            assertEquals(expectedTiers.size(), fake.entryTeams.size());
+        }
+        
+        for (Map.Entry<UUID, String> entry : expectedTiers.entrySet()) {
+            String name = "Player" + entry.getKey().getLeastSignificantBits();
+            assertEquals(TierTeamPool.TEAM_PREFIX + entry.getValue().toLowerCase(), fake.entryTeams.get(name));
+        }
+        
+        // Every team is registered once, and no update scans the scoreboard or touches more than two teams
+        assertEquals(fake.teams.size(), fake.registrations);
+        assertEquals(0, fake.teamScans);
+        assertTrue(fake.entryChanges <= 2L * operations, "entry changes: " + fake.entryChanges);
+    }
+    
+    @Test
+    void skipsRedundantMoves() {
+        UUID playerId = UUID.randomUUID();
+        
+        pool.join(playerId, "Steve", "HT1");
+        int changes = fake.entryChanges;
+        for (int i = 0; i < 100; i++) {
+            pool.join(playerId, "Steve", "ht1");
+        }
+        
+        assertEquals(changes, fake.entryChanges);
+        assertEquals(1, fake.teams.size());
+    }
+    
+    @Test
+    void restylesExistingTeams() {
+        pool.join(UUID.randomUUID(), "Steve", "HT1");
+        int styled = fake.prefixUpdates;
+        
+        pool.restyle(TierComponents.build(Map.of("ht1", new ConfigurationManager.TierColor("#FF0000", "#0000FF"))));
+        
+        assertEquals(styled + 1, fake.prefixUpdates);
+        assertEquals(1, fake.teams.size());
+    }
+    
+    // A scoreboard that follows Bukkit's rules: names are unique and an entry is on at most one team
+    private static class FakeScoreboard {
+        private final Map<String, Team> teams = new LinkedHashMap<>();
+        private final Map<String, String> entryTeams = new HashMap<>();
+        private final Scoreboard scoreboard;
+        private int registrations;
+        private int teamScans;
+        private int entryChanges;
+        private int prefixUpdates;
+        
+        private FakeScoreboard() {
+            this.scoreboard = (Scoreboard) Proxy.newProxyInstance(Scoreboard.class.getClassLoader(), new Class<?>[] {Scoreboard.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getTeams" -> {
+                        teamScans++;
+                        yield new HashSet<>(teams.values());
+                    }
+                    case "getTeam" -> teams.get((String) args[0]);
+                    case "registerNewTeam" -> {
+                        String name = (String) args[0];
+                        if (teams.containsKey(name)) {
+                            throw new IllegalArgumentException("Team name '" + name + "' is already in use");
+                        }
+                        registrations++;
+                        Team team = createTeam(name);
+                        teams.put(name, team);
+                        yield team;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "FakeScoreboard";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        }
+        
+        private Team createTeam(String name) {
+            return (Team) Proxy.newProxyInstance(Team.class.getClassLoader(), new Class<?>[] {Team.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getName" -> name;
+                    case "addEntry" -> {
+                        entryChanges++;
+                        entryTeams.put((String) args[0], name);
+                        yield null;
+                    }
+                    case "removeEntry" -> {
+                        entryChanges++;
+                        yield entryTeams.remove((String) args[0], name);
+                    }
+                    case "getEntries" -> {
+                        Set<String> entries = new HashSet<>();
+                        entryTeams.forEach((entry, team) -> {
+                            if (team.equals(name)) {
+                                entries.add(entry);
+                            }
+                        });
+                        yield entries;
+                    }
+                    case "prefix" -> {
+                        if (args != null) {
+                            prefixUpdates++;
+                        }
+                        yield null;
+                    }
+                    case "suffix" -> null;
+                    case "unregister" -> {
+                        teams.remove(name);
+                        entryTeams.values().removeIf(name::equals);
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "FakeTeam[" + name + "]";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        }
+    }
+}